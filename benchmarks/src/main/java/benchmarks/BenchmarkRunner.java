@@ -0,0 +1,30 @@
+/**
+ * The BenchmarkRunner class is the entry point of the benchmark jar. It takes the usual JMH command line, for
+ * example {@code -p size=1000,100000 CollectionBenchmark}, and unless another result format is given it writes
+ * the results as JSON to jmh-result.json, so the results of two releases can be compared with any JSON diff.
+ */
+package benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+    private static final String RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+                || options.shouldListProfilers() || options.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (!options.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON).result(RESULT_FILE);
+        }
+        new Runner(builder.build()).run();
+    }
+}
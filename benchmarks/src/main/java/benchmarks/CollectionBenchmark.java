@@ -0,0 +1,118 @@
+/**
+ * The CollectionBenchmark class measures the queries of CollectionControl and the operations that leave the
+ * collection as it was, so they can be repeated on the same data: the remove of a worker by its ID is measured
+ * together with adding it back, remove_greater with a worker that nobody is greater than measures the lookup
+ * of the range to remove, and an add with "--unique" of a copy of a worker measures the lookup of the duplicate.
+ */
+package benchmarks;
+
+import data.Worker;
+import exceptions.PassportTakenException;
+import org.openjdk.jmh.annotations.*;
+import support.CollectionControl;
+import support.SortedViews;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class CollectionBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"map", "columnar"})
+    public String store;
+
+    private CollectionControl collectionControl;
+    private Worker template;
+    private Worker expensive;
+    private Worker last;
+    private Worker duplicate;
+    private String passportID;
+    private int nextID;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fixtures.silenceOutput();
+        WorkerGenerator generator = new WorkerGenerator(42);
+        List<Worker> workers = generator.generate(size);
+        collectionControl = Fixtures.collection(store, workers);
+        Worker middle = workers.get(size / 2);
+        duplicate = copy(middle, 0, middle.getName(), middle.getSalary());
+        passportID = middle.getPerson().getPassportID();
+        template = generator.worker(size + 1);
+        expensive = copy(template, size + 1, template.getName(), 1e9);
+        last = copy(template, 0, "\uffff", 1.0);
+        nextID = 1;
+    }
+
+    @Benchmark
+    public void sortPerson() {
+        collectionControl.sortPerson();
+    }
+
+    @Benchmark
+    public void sortPersonFirst50() {
+        collectionControl.sortPerson(50, false);
+    }
+
+    @Benchmark
+    public void showSortedFirst50() {
+        collectionControl.showSorted(50, false);
+    }
+
+    @Benchmark
+    public List<Worker> showViewFirst50() {
+        return collectionControl.showView(SortedViews.Order.NAME, null, 0, 50);
+    }
+
+    @Benchmark
+    public ArrayList<Worker> filterGreaterThanStatus() {
+        return collectionControl.filterGreaterThanStatus("regular");
+    }
+
+    @Benchmark
+    public void groupByStatus() {
+        collectionControl.gropByStatus();
+    }
+
+    @Benchmark
+    public boolean addIfSmallerSalary() throws PassportTakenException {
+        return collectionControl.addIfSmallerSalary(expensive);
+    }
+
+    @Benchmark
+    public int removeGreaterNothing() {
+        return collectionControl.removeGreater(last);
+    }
+
+    @Benchmark
+    public List<Worker> findByPassport() {
+        return collectionControl.findByPassport(passportID);
+    }
+
+    @Benchmark
+    public Worker addUniqueDuplicate() throws PassportTakenException {
+        return collectionControl.addUnique(duplicate, null);
+    }
+
+    @Benchmark
+    public boolean removeElementByIDAndAddBack() {
+        int id = nextID;
+        nextID = nextID == size ? 1 : nextID + 1;
+        boolean removed = collectionControl.removeElementByID(id);
+        collectionControl.addToCollection(copy(template, id, template.getName(), template.getSalary()));
+        return removed;
+    }
+
+    private static Worker copy(Worker worker, int id, String name, double salary) {
+        return new Worker(id, name, worker.getCoordinates(), salary, worker.getPosition(),
+                worker.getStatus(), worker.getPerson());
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * The DateBenchmark class measures turning the birthdays of a million-row file into LocalDateTime objects. The text
+ * column is parsed the way the loaders used to do it, with a new formatter for every date, with one shared
+ * formatter and with DateCodec; the epoch-day column of the binary formats is decoded with LocalDate and with
+ * DateCodec. Each call converts the whole column.
+ */
+package benchmarks;
+
+import data.Worker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import support.DateCodec;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateBenchmark {
+    @Param({"1000000"})
+    public int size;
+
+    private String[] text;
+    private long[] epochDays;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Worker> workers = new WorkerGenerator(42).generate(size);
+        text = new String[size];
+        epochDays = new long[size];
+        for (int i = 0; i < size; i++) {
+            LocalDate birthday = workers.get(i).getPerson().getBirthday().toLocalDate();
+            text[i] = birthday.toString();
+            epochDays[i] = birthday.toEpochDay();
+        }
+    }
+
+    @Benchmark
+    public void parseWithNewFormatter(Blackhole blackhole) {
+        for (String date : text) {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd", new Locale("ru", "Ru"));
+            blackhole.consume(LocalDate.parse(date, formatter).atStartOfDay());
+        }
+    }
+
+    @Benchmark
+    public void parseWithSharedFormatter(Blackhole blackhole) {
+        for (String date : text) {
+            blackhole.consume(LocalDate.parse(date, DateCodec.FORMATTER).atStartOfDay());
+        }
+    }
+
+    @Benchmark
+    public void parseWithCodec(Blackhole blackhole) {
+        for (String date : text) {
+            blackhole.consume(DateCodec.parse(date));
+        }
+    }
+
+    @Benchmark
+    public void epochDayWithLocalDate(Blackhole blackhole) {
+        for (long day : epochDays) {
+            blackhole.consume(LocalDate.ofEpochDay(day).atStartOfDay());
+        }
+    }
+
+    @Benchmark
+    public void epochDayWithCodec(Blackhole blackhole) {
+        for (long day : epochDays) {
+            blackhole.consume(DateCodec.ofEpochDay(day));
+        }
+    }
+}
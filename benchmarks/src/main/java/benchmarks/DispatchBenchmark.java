@@ -0,0 +1,43 @@
+/**
+ * The DispatchBenchmark class measures how long the console takes to find the command for a line typed
+ * by the user, for command names in different letter cases.
+ */
+package benchmarks;
+
+import commands.Command;
+import exceptions.InputException;
+import org.openjdk.jmh.annotations.*;
+import support.CollectionControl;
+import support.Console;
+import support.FileControl;
+
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    @Param({"help", "show", "REMOVE_ELEMENT_BY_ID", "print_field_ascending_person"})
+    public String command;
+
+    private Console console;
+    private String[] line;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fixtures.silenceOutput();
+        FileControl fileControl = Fixtures.fileControl("map");
+        CollectionControl collectionControl = new CollectionControl(fileControl, Fixtures.communicationControl());
+        console = new Console(new Scanner(""), Fixtures.commandControl(fileControl, collectionControl), fileControl, collectionControl);
+        line = new String[]{command, ""};
+    }
+
+    @Benchmark
+    public Command chooseCommand() throws InputException {
+        return console.chooseCommand(line);
+    }
+}
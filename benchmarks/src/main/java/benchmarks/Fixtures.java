@@ -0,0 +1,72 @@
+/**
+ * The Fixtures class builds the objects of the application the way Main does, for use in the benchmarks.
+ * The collection is never journaled and the output of the commands is thrown away.
+ */
+package benchmarks;
+
+import data.Worker;
+import support.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Scanner;
+
+public final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * Creates a FileControl with the options of the given storage engine.
+     *
+     * @param store "map" or "columnar"
+     * @return the FileControl
+     */
+    public static FileControl fileControl(String store) {
+        return new FileControl("columnar".equals(store) ? new String[]{"--columnar"} : new String[0]);
+    }
+
+    /**
+     * Creates a collection on the given storage engine and adds the workers to it.
+     *
+     * @param store   "map" or "columnar"
+     * @param workers the workers to add
+     * @return the filled collection
+     */
+    public static CollectionControl collection(String store, List<Worker> workers) {
+        CollectionControl collectionControl = new CollectionControl(fileControl(store), communicationControl());
+        for (Worker worker : workers) {
+            collectionControl.addToCollection(worker);
+        }
+        return collectionControl;
+    }
+
+    /**
+     * Creates a CommunicationControl that has no input.
+     *
+     * @return the CommunicationControl
+     */
+    public static CommunicationControl communicationControl() {
+        return new CommunicationControl(new Scanner(""));
+    }
+
+    /**
+     * Creates a CommandControl with all the commands Main registers.
+     *
+     * @param fileControl       the FileControl of the application
+     * @param collectionControl the collection of the application
+     * @return the CommandControl
+     */
+    public static CommandControl commandControl(FileControl fileControl, CollectionControl collectionControl) {
+        return CommandControl.create(fileControl, collectionControl, communicationControl(), () -> {
+        });
+    }
+
+    /**
+     * Replaces the standard output with a stream that discards everything, so printing commands measure
+     * the formatting and not the terminal.
+     */
+    public static void silenceOutput() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * The LoadClient class puts load on a running collection server. It opens the given number of sessions at once,
+ * sends the same command from every session the given number of times, each ended by a blank line as the
+ * servers expect, waiting for each reply, and prints the throughput and the percentiles of the latency. A reply is everything the server sends before its next ">>"
+ * prompt at the start of a line. Run it with
+ * {@code java -cp benchmarks.jar benchmarks.LoadClient [host] [port] [sessions] [requests] [command]}, for example
+ * {@code java -cp benchmarks.jar benchmarks.LoadClient localhost 4040 1000 100 info}. With
+ * {@code -Dpipeline=N} every session sends N commands before it reads their replies; the latency of a command is
+ * then measured from the moment its group was sent.
+ */
+package benchmarks;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadClient {
+    private final String host;
+    private final int port;
+    private final byte[] request;
+    private final int pipeline = Math.max(1, Integer.getInteger("pipeline", 1));
+
+    private LoadClient(String host, int port, String command) {
+        this.host = host;
+        this.port = port;
+        this.request = (command + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 4040;
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        String command = args.length > 4 ? String.join(" ", Arrays.copyOfRange(args, 4, args.length)) : "info";
+        new LoadClient(host, port, command).run(sessions, requests);
+    }
+
+    private void run(int sessions, int requests) throws InterruptedException {
+        long[][] latencies = new long[sessions][];
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch connected = new CountDownLatch(sessions);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[sessions];
+        for (int i = 0; i < sessions; i++) {
+            int session = i;
+            threads[i] = new Thread(() -> {
+                try (Socket socket = new Socket(host, port)) {
+                    socket.setTcpNoDelay(true);
+                    InputStream in = new BufferedInputStream(socket.getInputStream());
+                    OutputStream out = socket.getOutputStream();
+                    awaitPrompt(in);
+                    connected.countDown();
+                    start.await();
+                    latencies[session] = load(in, out, requests);
+                } catch (IOException | InterruptedException e) {
+                    failed.incrementAndGet();
+                    connected.countDown();
+                }
+            }, "load-" + i);
+            threads[i].start();
+        }
+        connected.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        long elapsed = System.nanoTime() - begin;
+        report(latencies, failed.get(), elapsed);
+    }
+
+    private long[] load(InputStream in, OutputStream out, int requests) throws IOException {
+        long[] latencies = new long[requests];
+        byte[] group = new byte[request.length * pipeline];
+        for (int i = 0; i < pipeline; i++) {
+            System.arraycopy(request, 0, group, i * request.length, request.length);
+        }
+        for (int i = 0; i < requests; i += pipeline) {
+            int count = Math.min(pipeline, requests - i);
+            long sent = System.nanoTime();
+            out.write(group, 0, count * request.length);
+            out.flush();
+            for (int j = 0; j < count; j++) {
+                awaitPrompt(in);
+                latencies[i + j] = System.nanoTime() - sent;
+            }
+        }
+        out.write("exit\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        return latencies;
+    }
+
+    /**
+     * Skips the reply up to and including the next prompt at the start of a line. The reply starts right after
+     * the previous prompt, so the first character read is taken as the start of a line.
+     */
+    private static void awaitPrompt(InputStream in) throws IOException {
+        int column = 0;
+        boolean arrow = false;
+        int c;
+        while ((c = in.read()) >= 0) {
+            if (c == '\n') {
+                column = 0;
+                continue;
+            }
+            if (column == 0) arrow = c == '>';
+            else if (column == 1 && arrow && c == '>') return;
+            column++;
+        }
+        throw new EOFException("сервер закрыл соединение");
+    }
+
+    private static void report(long[][] latencies, int failed, long elapsed) {
+        long[] all = Arrays.stream(latencies).filter(l -> l != null).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("sessions: %d, failed: %d, requests: %d, time: %.2f s, throughput: %.0f req/s%n",
+                latencies.length, failed, all.length, elapsed / 1e9, all.length / (elapsed / 1e9));
+        if (all.length == 0) return;
+        System.out.printf("latency us: p50 %.0f, p90 %.0f, p99 %.0f, p99.9 %.0f, max %.0f%n",
+                all[all.length / 2] / 1e3, all[(int) (all.length * 0.9)] / 1e3, all[(int) (all.length * 0.99)] / 1e3,
+                all[(int) (all.length * 0.999)] / 1e3, all[all.length - 1] / 1e3);
+    }
+}
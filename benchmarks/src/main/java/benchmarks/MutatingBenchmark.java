@@ -0,0 +1,61 @@
+/**
+ * The MutatingBenchmark class measures the operations that change the collection for good. Every call gets
+ * a fresh collection with the workers in a shuffled order, so each call is timed once on the same kind of data.
+ */
+package benchmarks;
+
+import data.Worker;
+import org.openjdk.jmh.annotations.*;
+import support.CollectionControl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class MutatingBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"map", "columnar"})
+    public String store;
+
+    private List<Worker> workers;
+    private Worker middle;
+    private CollectionControl collectionControl;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fixtures.silenceOutput();
+        WorkerGenerator generator = new WorkerGenerator(42);
+        workers = generator.generate(size);
+        Worker template = generator.worker(size + 1);
+        middle = new Worker(0, "M", template.getCoordinates(), template.getSalary(), template.getPosition(),
+                template.getStatus(), template.getPerson());
+    }
+
+    @Setup(Level.Invocation)
+    public void fill() {
+        List<Worker> shuffled = new ArrayList<>(workers);
+        Collections.shuffle(shuffled, random);
+        collectionControl = Fixtures.collection(store, shuffled);
+    }
+
+    @Benchmark
+    public void sort() {
+        collectionControl.sort();
+    }
+
+    @Benchmark
+    public void removeGreater() {
+        collectionControl.removeGreater(middle);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * The WireBenchmark class compares the ways a worker can be put on the wire: its toString() text in UTF-8, the
+ * fixed-width record of WorkerCodec and the varint encoding of WireCodec. Each call encodes or decodes one worker
+ * of a set of generated ones; the sizes of the encodings are printed once at the start of the trial.
+ */
+package benchmarks;
+
+import data.Worker;
+import org.openjdk.jmh.annotations.*;
+import support.WireCodec;
+import support.WorkerCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireBenchmark {
+    private static final int WORKERS = 1024;
+
+    private Worker[] workers;
+    private ByteBuffer buffer;
+    private ByteBuffer encoded;
+    private int[] offsets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Worker> generated = new WorkerGenerator(42).generate(WORKERS);
+        workers = generated.toArray(new Worker[0]);
+        buffer = ByteBuffer.allocateDirect(1 << 12);
+        encoded = ByteBuffer.allocate(1 << 20);
+        offsets = new int[WORKERS];
+        long text = 0;
+        long record = 0;
+        for (int i = 0; i < WORKERS; i++) {
+            offsets[i] = encoded.position();
+            WireCodec.writeWorker(encoded, workers[i]);
+            text += workers[i].toString().getBytes(StandardCharsets.UTF_8).length;
+            record += WorkerCodec.fixedSize() + workers[i].getName().length() + workers[i].getPerson().getPassportID().length()
+                    + workers[i].getPerson().getLocation().getName().length();
+        }
+        System.out.printf("%nbytes per worker: text %d, record %d, wire %d%n", text / WORKERS, record / WORKERS, encoded.position() / WORKERS);
+    }
+
+    private Worker nextWorker() {
+        next = (next + 1) & (WORKERS - 1);
+        return workers[next];
+    }
+
+    @Benchmark
+    public byte[] encodeText() {
+        return nextWorker().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int encodeRecord() {
+        Worker worker = nextWorker();
+        buffer.clear();
+        WorkerCodec.write(buffer, worker, worker.getName().getBytes(StandardCharsets.UTF_8),
+                worker.getPerson().getPassportID().getBytes(StandardCharsets.UTF_8),
+                worker.getPerson().getLocation().getName().getBytes(StandardCharsets.UTF_8));
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int encodeWire() {
+        buffer.clear();
+        WireCodec.writeWorker(buffer, nextWorker());
+        return buffer.position();
+    }
+
+    @Benchmark
+    public Worker decodeWire() throws IOException {
+        next = (next + 1) & (WORKERS - 1);
+        encoded.position(offsets[next]);
+        return WireCodec.readWorker(encoded);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * The WorkerGenerator class creates synthetic workers for the benchmarks. Every field is kept inside the ranges
+ * the XML loader and the console accept, so the generated workers survive a save and a load: names and
+ * location names are letters only, x is at most 468, y is greater than -922, the salary is positive, the
+ * height is from 1 to 350 and the passport ID has six digits. The generator is seeded, so every run of a
+ * benchmark works on the same data.
+ */
+package benchmarks;
+
+import data.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class WorkerGenerator {
+    private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final Position[] POSITIONS = Position.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Random random;
+
+    /**
+     * Constructs a generator with the given seed.
+     *
+     * @param seed the seed of the random numbers
+     */
+    public WorkerGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates workers with the IDs from 1 to the given count and moves the ID counter past them.
+     *
+     * @param count the number of workers
+     * @return the generated workers
+     */
+    public List<Worker> generate(int count) {
+        List<Worker> workers = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            workers.add(worker(id));
+        }
+        Worker.resetIds();
+        Worker.reserveId(count);
+        return workers;
+    }
+
+    /**
+     * Generates a single worker with the given ID.
+     *
+     * @param id the ID of the worker
+     * @return the generated worker
+     */
+    public Worker worker(int id) {
+        Coordinates coordinates = new Coordinates(random.nextInt(1390) - 921, random.nextInt(2000) - 921);
+        double salary = 1 + random.nextInt(1_000_000) / 100.0;
+        LocalDate birthday = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(365 * 55));
+        Location location = new Location(random.nextFloat() * 1000, random.nextInt(100_000), random.nextInt(1000), name(6));
+        Person person = new Person(birthday.atStartOfDay(), 1 + random.nextInt(350),
+                String.valueOf(100_000 + random.nextInt(900_000)), location);
+        return new Worker(id, name(8), coordinates, salary, POSITIONS[random.nextInt(POSITIONS.length)],
+                STATUSES[random.nextInt(STATUSES.length)], person);
+    }
+
+    private String name(int length) {
+        char[] name = new char[length];
+        name[0] = LETTERS.charAt(random.nextInt(26));
+        for (int i = 1; i < length; i++) {
+            name[i] = LETTERS.charAt(26 + random.nextInt(26));
+        }
+        return new String(name);
+    }
+}
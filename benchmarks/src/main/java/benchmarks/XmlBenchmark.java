@@ -0,0 +1,81 @@
+/**
+ * The XmlBenchmark class measures loading and saving the collection as XML. The file is generated once per
+ * trial in a temporary directory and read with each of the loaders FileControl can pick. FileControl saves to
+ * the path of the directory followed by "\\workers.xml", which is a file next to the directory outside Windows,
+ * so it is deleted separately.
+ */
+package benchmarks;
+
+import data.Worker;
+import org.openjdk.jmh.annotations.*;
+import support.FileControl;
+import support.ParallelXmlLoader;
+import support.ParserXml;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class XmlBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Path directory;
+    private String file;
+    private List<Worker> workers;
+    private FileControl fileControl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, XMLStreamException {
+        Fixtures.silenceOutput();
+        directory = Files.createTempDirectory("workers");
+        file = directory.resolve("workers.xml").toString();
+        workers = new WorkerGenerator(42).generate(size);
+        fileControl = Fixtures.fileControl("map");
+        fileControl.writeXml(workers, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of(directory + "\\workers.xml"));
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * The loader used by the load benchmark.
+     */
+    @State(Scope.Benchmark)
+    public static class Loader {
+        @Param({"stax", "dom", "parallel"})
+        public String parser;
+    }
+
+    @Benchmark
+    public List<Worker> load(Loader loader) {
+        return switch (loader.parser) {
+            case "dom" -> new ParserXml(file).parseWorkersFromXMLDom();
+            case "parallel" -> new ParallelXmlLoader(file).load();
+            default -> new ParserXml(file).parseWorkersFromXML();
+        };
+    }
+
+    @Benchmark
+    public void save() throws IOException, XMLStreamException {
+        fileControl.writeToFile(workers, directory.toString());
+    }
+}
@@ -1,13 +1,20 @@
-import commands.*;
 import support.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
 import java.util.Scanner;
 
 public class Main {
     /**
      * The main method is the entry point of the program. It creates instances of
      * various control classes and passes them to a Console object to handle user
-     * input and execute commands.
+     * input and execute commands. With the "--server" or "--server=port" option
+     * the collection is served to network clients instead of the console, by a thread
+     * per client or, with the "--nio" option, by a single event loop. The server listens
+     * on the loopback address; "--bind=address" makes it listen on another one. A binary
+     * snapshot is decoded before the server starts, so that read-only commands of clients
+     * share the read lock of the collection.
      *
      * @param args An array of command-line arguments.
      */
@@ -17,15 +24,35 @@ public class Main {
             FileControl fileControl = new FileControl(args);
             CommunicationControl communicationControl = new CommunicationControl(scanner);
             CollectionControl collectionControl = new CollectionControl(fileControl, communicationControl);
-            CommandControl commandControl = new CommandControl(new AddElement(communicationControl, collectionControl),
-                    new AddElementIfMin(collectionControl, communicationControl),
-                    new Clear(collectionControl, communicationControl),
-                    new ExecuteScript(collectionControl, communicationControl), new Exit(), new FilterGreaterStatus(collectionControl, communicationControl),
-                    new GroupByStatus(collectionControl), new Help(collectionControl), new Info(collectionControl), new PrintFieldOfPerson(collectionControl),
-                    new RemoveElementByID(collectionControl, communicationControl), new RemoveGreater(collectionControl, communicationControl), new SaveCollection(fileControl, collectionControl),
-                    new Show(collectionControl), new Sort(collectionControl), new UpdateByID(collectionControl), collectionControl);
+            CommandControl commandControl = CommandControl.create(fileControl, collectionControl, communicationControl, () -> System.exit(0));
             Console console = new Console(scanner, commandControl, fileControl, collectionControl);
-            console.interactive();
+            String port = fileControl.optionValue("--server");
+            if (port == null) {
+                console.interactive();
+                return;
+            }
+            console.open();
+            try {
+                collectionControl.materializeSnapshot();
+                int number = port.isEmpty() ? CollectionServer.DEFAULT_PORT : Integer.parseInt(port);
+                String bind = fileControl.optionValue("--bind");
+                InetAddress address = bind == null || bind.isEmpty() ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind);
+                if (fileControl.hasOption("--nio")) {
+                    try (NioCollectionServer server = new NioCollectionServer(address, number, collectionControl)) {
+                        server.serve();
+                    }
+                } else {
+                    try (CollectionServer server = new CollectionServer(address, number, collectionControl)) {
+                        server.serve();
+                    }
+                }
+            } catch (NumberFormatException e) {
+                Console.err("неверный номер порта: " + port);
+            } catch (UncheckedIOException e) {
+                Console.err(e.getMessage());
+            } catch (IOException e) {
+                Console.err("не удалось запустить сервер: " + e.getMessage());
+            }
         }
 
     }
@@ -1,5 +1,7 @@
 /**
  * The {@code AddElement} class represents a command that adds a new worker element to the collection.
+ * With "--unique" the worker is only added if the collection has no worker with the same content. A worker whose
+ * passport ID another worker already has is never added.
  * The command requires instances of {@link CommunicationControl} and {@link CollectionControl} to communicate with the user
  * and modify the collection, respectively.
  * This class extends the {@link AbstractCommand} abstract class.
@@ -8,6 +10,7 @@ package commands;
 
 import data.Worker;
 import exceptions.InputException;
+import exceptions.PassportTakenException;
 import exceptions.WrongArgumentsException;
 import support.CollectionControl;
 import support.CommunicationControl;
@@ -26,7 +29,7 @@ public class AddElement extends AbstractCommand {
      * @param collectionControl the {@link CollectionControl} instance to be used for modifying the collection
      */
     public AddElement(CommunicationControl communicationControl, CollectionControl collectionControl) {
-        super("addElement", "Добавить элемент в коллекцию");
+        super("addElement", "Добавить элемент в коллекцию (addElement --unique - только если такого ещё нет)");
         this.communicationControl = communicationControl;
         this.collectionControl = collectionControl;
     }
@@ -34,18 +37,30 @@ public class AddElement extends AbstractCommand {
     /**
      * Executes the command by adding a new worker element to the collection.
      *
-     * @param argument the command argument
+     * @param argument nothing, or "--unique"
      */
     public void execute(String argument) {
         try {
-            if (!argument.isEmpty()) throw new WrongArgumentsException();
-            collectionControl.addToCollection(new Worker(communicationControl.setName(),
+            boolean unique = argument.equals("--unique");
+            if (!argument.isEmpty() && !unique) throw new WrongArgumentsException();
+            Worker worker = new Worker(communicationControl.setName(),
                     communicationControl.setCoordinates(),
                     communicationControl.setSalary(), communicationControl.choosePosition(),
-                    communicationControl.chooseStatus(), communicationControl.setPerson()));
+                    communicationControl.chooseStatus(), communicationControl.setPerson());
+            if (!unique) {
+                collectionControl.addToCollection(worker, communicationControl);
+                return;
+            }
+            Worker existing = collectionControl.addUnique(worker, communicationControl);
+            if (existing != null) Console.err("такой работник уже есть в коллекции, id " + existing.getID());
         } catch (WrongArgumentsException e) {
+            collectionControl.failBatch(communicationControl);
+            Console.err(e.getMessage());
+        } catch (PassportTakenException e) {
+            collectionControl.failBatch(communicationControl);
             Console.err(e.getMessage());
         } catch (InputException e) {
+            collectionControl.failBatch(communicationControl);
             Console.err("Некорректный данные в скрипте!");
         }
     }
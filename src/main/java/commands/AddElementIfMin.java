@@ -9,6 +9,7 @@ package commands;
 
 import data.Worker;
 import exceptions.InputException;
+import exceptions.PassportTakenException;
 import exceptions.WrongArgumentsException;
 import support.CollectionControl;
 import support.CommunicationControl;
@@ -42,10 +43,14 @@ public class AddElementIfMin extends AbstractCommand {
                     communicationControl.setCoordinates(),
                     communicationControl.setSalary(), communicationControl.choosePosition(),
                     communicationControl.chooseStatus(), communicationControl.setPerson());
-            if (!collectionControl.addIfSmallerSalary(newWorker)) newWorker = null;
+            if (!collectionControl.addIfSmallerSalary(newWorker, communicationControl)) newWorker = null;
         } catch (WrongArgumentsException e) {
             Console.err("Превышенно кол-во аргементов");
+        } catch (PassportTakenException e) {
+            collectionControl.failBatch(communicationControl);
+            Console.err(e.getMessage());
         } catch (InputException e) {
+            collectionControl.failBatch(communicationControl);
             Console.err("Некорректный данные в скрипте!");
         }
     }
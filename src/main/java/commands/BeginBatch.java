@@ -0,0 +1,42 @@
+package commands;
+
+import exceptions.WrongArgumentsException;
+import support.CollectionControl;
+import support.CommunicationControl;
+import support.Console;
+
+/**
+ * The BeginBatch class represents a command that opens a batch. The workers added after it are checked
+ * without printing the prompts and are put into the collection together by commit_batch.
+ */
+public class BeginBatch extends AbstractCommand {
+    CollectionControl collectionControl;
+    CommunicationControl communicationControl;
+
+    /**
+     * Constructs the BeginBatch object with the specified CollectionControl and CommunicationControl objects.
+     *
+     * @param collectionControl    the CollectionControl object to be used
+     * @param communicationControl the input whose prompts are not printed during the batch
+     */
+    public BeginBatch(CollectionControl collectionControl, CommunicationControl communicationControl) {
+        super("begin_batch", "начать пакет: добавленные элементы попадут в коллекцию вместе по commit_batch");
+        this.collectionControl = collectionControl;
+        this.communicationControl = communicationControl;
+    }
+
+    /**
+     * Executes the command.
+     *
+     * @param argument the argument of the command, must be empty
+     */
+    @Override
+    public void execute(String argument) {
+        try {
+            if (!argument.isEmpty()) throw new WrongArgumentsException();
+            if (!collectionControl.beginBatch(communicationControl)) Console.err("пакет уже начат");
+        } catch (WrongArgumentsException e) {
+            Console.err("у данной команды не должно быть аргументов");
+        }
+    }
+}
@@ -3,7 +3,6 @@
  */
 package commands;
 
-import data.Worker;
 import exceptions.WrongArgumentsException;
 import support.CollectionControl;
 import support.CommunicationControl;
@@ -39,7 +38,7 @@ public class Clear extends AbstractCommand {
             Console.writeln("Вы уверены, что хотите отчистить коллекцию? ");
             if (communicationControl.confirm()) {
                 collectionControl.clear();
-                Worker.idCounter = 0;
+                Console.writeln("Коллекция очистилась...");
             }
         } catch (WrongArgumentsException e) {
             Console.err("Превышенно кол-во аргументов");
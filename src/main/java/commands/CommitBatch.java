@@ -0,0 +1,48 @@
+package commands;
+
+import exceptions.WrongArgumentsException;
+import support.CollectionControl;
+import support.CommunicationControl;
+import support.Console;
+
+/**
+ * The CommitBatch class represents a command that closes the batch opened by begin_batch. The staged workers
+ * are added to the collection together, or none of them is added if any of them was invalid.
+ */
+public class CommitBatch extends AbstractCommand {
+    CollectionControl collectionControl;
+    CommunicationControl communicationControl;
+
+    /**
+     * Constructs the CommitBatch object with the specified CollectionControl and CommunicationControl objects.
+     *
+     * @param collectionControl    the CollectionControl object to be used
+     * @param communicationControl the input whose batch is closed
+     */
+    public CommitBatch(CollectionControl collectionControl, CommunicationControl communicationControl) {
+        super("commit_batch", "завершить пакет и добавить его элементы в коллекцию");
+        this.collectionControl = collectionControl;
+        this.communicationControl = communicationControl;
+    }
+
+    /**
+     * Executes the command.
+     *
+     * @param argument the argument of the command, must be empty
+     */
+    @Override
+    public void execute(String argument) {
+        try {
+            if (!argument.isEmpty()) throw new WrongArgumentsException();
+            if (!collectionControl.inBatch(communicationControl)) {
+                Console.err("пакет не начат");
+                return;
+            }
+            int added = collectionControl.commitBatch(communicationControl);
+            if (added < 0) Console.err("в пакете есть некорректные данные, пакет отменен");
+            else Console.writeln("Добавлено элементов: " + added);
+        } catch (WrongArgumentsException e) {
+            Console.err("у данной команды не должно быть аргументов");
+        }
+    }
+}
@@ -4,13 +4,10 @@
 
 package commands;
 
-import exceptions.EmptyInputException;
 import exceptions.WrongArgumentsException;
 import support.*;
 import support.Console;
 import java.io.*;
-import java.util.HashMap;
-import java.util.Scanner;
 
 
 public class ExecuteScript extends AbstractCommand {
@@ -32,91 +29,45 @@ public class ExecuteScript extends AbstractCommand {
 
 
     /**
-     * Executes the command with the specified argument.
+     * Executes the command with the specified argument. The script is read once, line by line: its commands
+     * are run in order and its data lines answer the prompts of the commands. Nested execute_script lines are skipped.
      *
      * @param argument the argument for the command
      */
     @Override
     public void execute(String argument) {
-
         try {
             if (argument.isEmpty()) throw new WrongArgumentsException();
             FileControl.checkFilePermissions(argument);
-            fileProcessor(argument);
-            File fileData = new File("outputData.txt");
-            File fileCommands = new File("outputCommands.txt");
-            FileInputStream fileIn = new FileInputStream(fileData);
-            Scanner scanner = new Scanner(fileCommands);
-            communicationControl.setUnsetLoop();
-
-
-            try (fileIn) {
-
-                // Заменяем стандартный поток ввода на InputStream из файла
-                communicationControl.changeScanner(fileIn);
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine().trim();
-                    String[] args = (line.trim() + " ").split(" ");
-                    HashMap<String, Command> commandMap = collectionControl.sendCommandMap();
-                    for (String key : commandMap.keySet()) {
-                        if ((key.equalsIgnoreCase(args[0].trim())) && (!key.equalsIgnoreCase("execute_script"))) {
-                            String argumentForExecute;
-                            if (args.length == 2) {
-                                argumentForExecute = args[1];
-                            } else {
-                                argumentForExecute = "";
-                            }
-
-                            commandMap.get(key).execute(argumentForExecute);
-
-                        }
+            CommandControl commandControl = communicationControl.getCommandControl();
+            try (ScriptSource script = new ScriptSource(new BufferedReader(new FileReader(argument), 1 << 16), commandControl)) {
+                boolean loop = communicationControl.isLoop();
+                communicationControl.setLoop(false);
+                communicationControl.changeSource(script);
+                try {
+                    String line;
+                    while ((line = script.nextCommand()) != null) {
+                        int nameEnd = CommandControl.nameEnd(line);
+                        Command command = commandControl.find(line, 0, nameEnd);
+                        if (command != this) command.execute(CommandControl.argumentOf(line, nameEnd));
                     }
+                } catch (RuntimeException e) {
+                    Console.err("выполнение скрипта прервано: " + e.getMessage());
+                } finally {
+                    if (collectionControl.inBatch(communicationControl)) {
+                        collectionControl.rollbackBatch(communicationControl);
+                        Console.err("пакет не был завершен в скрипте и отменен");
+                    }
+                    communicationControl.setLoop(loop);
+                    communicationControl.restoreConsole();
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                // Восстанавливаем стандартный поток ввода
-                communicationControl.setUnsetLoop();
-                communicationControl.changeScanner(System.in);
-                // Закрываем InputStream из файла
-                fileCommands.delete();
-                fileData.delete();
             }
-
         } catch (WrongArgumentsException e) {
             Console.err("название скрипта не введено");
-
+        } catch (FileNotFoundException e) {
+            Console.writeln("Файла не найдено");
         } catch (IOException e) {
             Console.err("");
         }
     }
-
-    /**
-     * Processes the script file and writes the commands to a file.
-     *
-     * @param file the script file to process
-     */
-    private void fileProcessor(String file) {
-        String outputDataName = "outputData.txt";
-        String outputCommandsName = "outputCommands.txt";
-
-        try (Scanner scanner = new Scanner(new File(file));
-             FileOutputStream fosData = new FileOutputStream(outputDataName);
-             FileOutputStream fosCommand = new FileOutputStream(outputCommandsName)) {
-            while (scanner.hasNextLine()) {
-                String[] args;
-                String line = scanner.nextLine();
-                args = (line.trim() + " ").split(" ", 2);
-                if (args.length == 0) throw new EmptyInputException();
-                if (!collectionControl.sendCommandMap().containsKey(args[0].trim())) {
-                    fosData.write((line + "\n").getBytes());
-                } else {
-                    fosCommand.write((args[0] + " " + args[1] + "\n").getBytes());
-                }
-            }
-
-        } catch (IOException e) {
-            Console.writeln("Файла не найдено");
-        }
-    }
 }
@@ -10,13 +10,25 @@ import support.Console;
  It inherits the command name and description from the parent class.
  */
 public class Exit extends AbstractCommand {
+    private final Runnable termination;
 
     /**
 
      Constructor for Exit class. It calls the constructor of the parent AbstractCommand class to set the command name and description.
+     The command stops the whole program.
      */
     public Exit(){
+        this(() -> System.exit(0));
+    }
+
+    /**
+
+     Constructor for Exit class that ends only what the given action ends, for example a single network session.
+     @param termination the action that ends the work
+     */
+    public Exit(Runnable termination){
         super("exit", "прекращает работу программы");
+        this.termination = termination;
     }
     /**
 
@@ -29,7 +41,7 @@ public class Exit extends AbstractCommand {
         try {
             if (!argument.isEmpty()) throw new WrongArgumentsException();
             Console.write("terminating the program");
-            System.exit(0);
+            termination.run();
         } catch (WrongArgumentsException e){
             Console.err("exceeded number of arguments");
         }
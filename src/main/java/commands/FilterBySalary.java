@@ -0,0 +1,45 @@
+package commands;
+
+import data.Worker;
+import exceptions.WrongArgumentsException;
+import support.CollectionControl;
+import support.Console;
+
+/**
+ * The FilterBySalary class represents a command that outputs the workers whose salary is between two bounds.
+ */
+public class FilterBySalary extends AbstractCommand {
+    CollectionControl collectionControl;
+
+    /**
+     * Constructs the FilterBySalary object with the specified CollectionControl object.
+     *
+     * @param collectionControl the CollectionControl object to be used
+     */
+    public FilterBySalary(CollectionControl collectionControl) {
+        super("filter_by_salary", "вывести элементы, зарплата которых в заданном диапазоне (filter_by_salary от до)");
+        this.collectionControl = collectionControl;
+    }
+
+    /**
+     * Executes the command. The argument must contain the lower and the upper bound of the salary.
+     *
+     * @param argument the bounds separated by a space
+     */
+    @Override
+    public void execute(String argument) {
+        try {
+            String[] bounds = argument.trim().split("\\s+");
+            if (bounds.length != 2) throw new WrongArgumentsException();
+            double from = Double.parseDouble(bounds[0]);
+            double to = Double.parseDouble(bounds[1]);
+            for (Worker worker : collectionControl.filterBySalary(from, to)) {
+                Console.writeln(worker.toString());
+            }
+        } catch (NumberFormatException e) {
+            Console.err("границы должны быть числами");
+        } catch (WrongArgumentsException e) {
+            Console.err("нужно ввести две границы зарплаты");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package commands;
+
+import data.Worker;
+import exceptions.WrongArgumentsException;
+import support.CollectionControl;
+import support.Console;
+import support.Validators;
+
+import java.util.List;
+
+/**
+ * The FindByPassport class represents a command that outputs the worker with the given passport ID. The worker is
+ * found through the passport index of the collection, so a lookup takes the same time however large the collection is.
+ */
+public class FindByPassport extends AbstractCommand {
+    CollectionControl collectionControl;
+
+    /**
+     * Constructs the FindByPassport object with the specified CollectionControl object.
+     *
+     * @param collectionControl the CollectionControl object to be used
+     */
+    public FindByPassport(CollectionControl collectionControl) {
+        super("find_by_passport", "вывести работника с заданным номером паспорта (find_by_passport номер)");
+        this.collectionControl = collectionControl;
+    }
+
+    /**
+     * Executes the command. The argument must be a passport ID of six digits.
+     *
+     * @param argument the passport ID
+     */
+    @Override
+    public void execute(String argument) {
+        try {
+            String passportID = argument.trim();
+            if (passportID.isEmpty() || passportID.contains(" ")) throw new WrongArgumentsException();
+            if (!Validators.isValidPassportID(passportID)) {
+                Console.err("номер паспорта должен содержать 6 цифр");
+                return;
+            }
+            List<Worker> workers = collectionControl.findByPassport(passportID);
+            if (workers.isEmpty()) Console.writeln("работника с таким номером паспорта нет");
+            for (Worker worker : workers) {
+                Console.writeln(worker.toString());
+            }
+        } catch (WrongArgumentsException e) {
+            Console.err("используйте find_by_passport номер");
+        }
+    }
+}
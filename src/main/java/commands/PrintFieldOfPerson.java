@@ -6,7 +6,8 @@ import support.CollectionControl;
 import support.Console;
 
 /**
- * Command to print the Person data in ascending order by their name.
+ * Command to print the Person data in ascending order by their birthday. "print_field_ascending_person N" prints
+ * only the first N persons of that order and "print_field_ascending_person --last N" the last N.
  */
 public class PrintFieldOfPerson extends AbstractCommand {
     CollectionControl collectionControl;
@@ -17,20 +18,30 @@ public class PrintFieldOfPerson extends AbstractCommand {
      * @param collectionControl the CollectionControl object to be used
      */
     public PrintFieldOfPerson(CollectionControl collectionControl) {
-        super("print_field_ascending_person", "выводит данные о человеке в порядке возрастания");
+        super("print_field_ascending_person", "выводит данные о человеке в порядке возрастания ([N | --last N] - только первые или последние N)");
         this.collectionControl = collectionControl;
     }
 
     /**
-     * Executes the PrintFieldOfPerson command to print the Person data in ascending order by name.
+     * Executes the PrintFieldOfPerson command to print the Person data in ascending order by birthday.
      *
-     * @param argument the arguments passed to the command
+     * @param argument nothing, the number of persons, or "--last" and the number of persons
      */
     @Override
     public void execute(String argument) {
         try {
-            if (!argument.isEmpty()) throw new WrongArgumentsException();
-            collectionControl.sortPerson();
+            if (argument.isEmpty()) {
+                collectionControl.sortPerson();
+                return;
+            }
+            String[] option = argument.split("\\s+");
+            boolean last = option[0].equals("--last");
+            if (option.length != (last ? 2 : 1)) throw new WrongArgumentsException();
+            int count = Integer.parseInt(option[option.length - 1]);
+            if (count <= 0) throw new NumberFormatException();
+            collectionControl.sortPerson(count, last);
+        } catch (NumberFormatException e) {
+            Console.err("кол-во должно быть целым числом больше нуля");
         } catch (WrongArgumentsException e) {
             Console.err(e.getMessage());
         }
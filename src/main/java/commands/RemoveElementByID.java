@@ -34,9 +34,8 @@ public class RemoveElementByID extends AbstractCommand {
         try {
             if (argument.isEmpty()) throw new WrongArgumentsException();
             int id = Integer.parseInt(argument.trim());
-            collectionControl.removeElementByID(id);
-            collectionControl.updateAllIDs();
-            Console.writeln("Successfully removed element");
+            if (collectionControl.removeElementByID(id)) Console.writeln("Successfully removed element");
+            else Console.err("Элемента с такии id нет в коллекции");
         } catch (NumberFormatException e) {
             Console.err("Incorrect ID format");
         } catch (WrongArgumentsException e) {
@@ -39,11 +39,11 @@ public class RemoveGreater extends AbstractCommand {
     public void execute(String argument) {
         try {
             if (!argument.isEmpty()) throw new WrongArgumentsException();
-            collectionControl.removeGreater(new Worker(communicationControl.setName(),
+            int removed = collectionControl.removeGreater(new Worker(0, communicationControl.setName(),
                     communicationControl.setCoordinates(), communicationControl.setSalary(),
                     communicationControl.choosePosition(), communicationControl.chooseStatus(),
                     communicationControl.setPerson()));
-            collectionControl.updateAllIDs();
+            Console.writeln("Удалено элементов: " + removed);
         } catch (WrongArgumentsException e) {
             Console.err(e.getMessage());
         } catch (InputException e) {
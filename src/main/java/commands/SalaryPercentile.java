@@ -0,0 +1,45 @@
+package commands;
+
+import data.Worker;
+import exceptions.WrongArgumentsException;
+import support.CollectionControl;
+import support.Console;
+
+/**
+ * The SalaryPercentile class represents a command that outputs the worker whose salary is the given
+ * percentile of all salaries, for example 50 for the median or 90 for p90.
+ */
+public class SalaryPercentile extends AbstractCommand {
+    CollectionControl collectionControl;
+
+    /**
+     * Constructs the SalaryPercentile object with the specified CollectionControl object.
+     *
+     * @param collectionControl the CollectionControl object to be used
+     */
+    public SalaryPercentile(CollectionControl collectionControl) {
+        super("salary_percentile", "вывести работника, зарплата которого равна заданному перцентилю (50 - медиана)");
+        this.collectionControl = collectionControl;
+    }
+
+    /**
+     * Executes the command.
+     *
+     * @param argument the percentile, from 0 to 100
+     */
+    @Override
+    public void execute(String argument) {
+        try {
+            if (argument.isEmpty()) throw new WrongArgumentsException();
+            double percentile = Double.parseDouble(argument.trim());
+            if (percentile < 0 || percentile > 100) throw new NumberFormatException();
+            Worker worker = collectionControl.salaryPercentile(percentile);
+            if (worker == null) Console.writeln("Коллекция пуста");
+            else Console.writeln(worker.toString());
+        } catch (NumberFormatException e) {
+            Console.err("перцентиль должен быть числом от 0 до 100");
+        } catch (WrongArgumentsException e) {
+            Console.err("введите перцентиль");
+        }
+    }
+}
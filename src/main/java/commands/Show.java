@@ -4,27 +4,49 @@ import exceptions.WrongArgumentsException;
 import support.CollectionControl;
 import support.Console;
 
+/**
+ * The Show class represents a command that outputs the workers of the collection. Without arguments it outputs all
+ * of them; "show limit" outputs the first ones and "show offset limit" the ones after the given number. "show next"
+ * continues after the last page this session was shown, with the same number of workers. The pages are counted in
+ * the current order of the collection, so workers added or removed between two pages move the following ones.
+ */
 public class Show extends AbstractCommand {
     CollectionControl collectionControl;
+    private int nextOffset;
+    private int pageSize = 100;
 
     public Show(CollectionControl collectionControl) {
-        super("show", "вывести в стандартный поток вывода все элементы коллекции в строковом представлению");
+        super("show", "вывести элементы коллекции в строковом представлении (show [смещение] [кол-во] | show next)");
         this.collectionControl = collectionControl;
     }
 
     /**
      * Executes the command.
      *
-     * @param argument a string argument for the command
+     * @param argument nothing, the number of workers, the offset and the number of workers, or "next"
      */
     @Override
     public void execute(String argument) {
         try {
-            if (!argument.isEmpty()) throw new WrongArgumentsException();
-            this.collectionControl.show();
+            if (argument.isEmpty()) {
+                this.collectionControl.show();
+                return;
+            }
+            int offset = nextOffset;
+            if (!argument.equals("next")) {
+                String[] bounds = argument.split("\\s+");
+                if (bounds.length > 2) throw new WrongArgumentsException();
+                offset = bounds.length == 2 ? Integer.parseInt(bounds[0]) : 0;
+                pageSize = Integer.parseInt(bounds[bounds.length - 1]);
+                if (offset < 0 || pageSize <= 0) throw new NumberFormatException();
+            }
+            int shown = collectionControl.show(offset, pageSize);
+            nextOffset = offset + shown;
+            if (shown < pageSize) Console.writeln("-- конец коллекции --");
+        } catch (NumberFormatException e) {
+            Console.err("смещение и кол-во должны быть целыми числами, кол-во больше нуля");
         } catch (WrongArgumentsException e) {
-            Console.err(e.getMessage());
+            Console.err("show принимает не больше двух чисел или next");
         }
-
     }
 }
@@ -0,0 +1,71 @@
+package commands;
+
+import data.Worker;
+import exceptions.WrongArgumentsException;
+import support.CollectionControl;
+import support.Console;
+import support.SortedViews;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The ShowView class represents a command that outputs the workers in the order of a sorted view: by name, by
+ * birthday or by salary. "show_view order N" outputs the first N workers of the order and "show_view order offset N"
+ * the N after the given number; "show_view next" continues after the last worker this session was shown, even if
+ * the collection has changed since. The view is built on the first use and then kept up to date by every change,
+ * so reading it again does not sort anything.
+ */
+public class ShowView extends AbstractCommand {
+    CollectionControl collectionControl;
+    private SortedViews.Order order;
+    private Worker last;
+    private int pageSize = 100;
+
+    /**
+     * Constructs the ShowView object with the specified CollectionControl object.
+     *
+     * @param collectionControl the CollectionControl object to be used
+     */
+    public ShowView(CollectionControl collectionControl) {
+        super("show_view", "вывести элементы в порядке представления (show_view name|birthday|salary [смещение] [кол-во] | show_view next)");
+        this.collectionControl = collectionControl;
+    }
+
+    /**
+     * Executes the command.
+     *
+     * @param argument the name of the order with the optional offset and number of workers, or "next"
+     */
+    @Override
+    public void execute(String argument) {
+        try {
+            int skip = 0;
+            if (argument.equals("next")) {
+                if (order == null) {
+                    Console.err("сначала выберите представление: show_view name|birthday|salary");
+                    return;
+                }
+            } else {
+                String[] words = argument.split("\\s+");
+                if (argument.isEmpty() || words.length > 3) throw new WrongArgumentsException();
+                SortedViews.Order chosen = SortedViews.Order.valueOf(words[0].toUpperCase(Locale.ROOT));
+                int size = words.length > 1 ? Integer.parseInt(words[words.length - 1]) : pageSize;
+                skip = words.length == 3 ? Integer.parseInt(words[1]) : 0;
+                if (skip < 0 || size <= 0) throw new NumberFormatException();
+                order = chosen;
+                pageSize = size;
+                last = null;
+            }
+            List<Worker> page = collectionControl.showView(order, last, skip, pageSize);
+            if (!page.isEmpty()) last = page.get(page.size() - 1);
+            if (page.size() < pageSize) Console.writeln("-- конец представления --");
+        } catch (NumberFormatException e) {
+            Console.err("смещение и кол-во должны быть целыми числами, кол-во больше нуля");
+        } catch (IllegalArgumentException e) {
+            Console.err("нет такого представления, есть name, birthday и salary");
+        } catch (WrongArgumentsException e) {
+            Console.err("используйте show_view name|birthday|salary [смещение] [кол-во] или show_view next");
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package commands;
 
+import exceptions.WrongArgumentsException;
 import support.CollectionControl;
+import support.Console;
 
 /**
- * The Sort class represents a command to sort the collection in natural order.
+ * The Sort class represents a command to sort the collection in natural order. With "--limit N" or "--last N"
+ * it only outputs the first or the last N workers of that order and leaves the collection as it is.
  */
 public class Sort extends AbstractCommand {
     CollectionControl collectionControl;
@@ -14,17 +17,33 @@ public class Sort extends AbstractCommand {
      * @param collectionControl the CollectionControl object to be used
      */
     public Sort(CollectionControl collectionControl) {
-        super("sort", "Отсортировать коллекцию в естественном порядке");
+        super("sort", "Отсортировать коллекцию в естественном порядке (sort --limit N | sort --last N - только вывести первые или последние N)");
         this.collectionControl = collectionControl;
     }
 
     /**
      * Executes the Sort command by invoking the sort() method on the CollectionControl object.
      *
-     * @param argument the argument to be passed to the command
+     * @param argument nothing, or "--limit" or "--last" followed by the number of workers to output
      */
     @Override
     public void execute(String argument) {
-        collectionControl.sort();
+        try {
+            if (argument.isEmpty()) {
+                collectionControl.sort();
+                return;
+            }
+            String[] option = argument.split("\\s+");
+            if (option.length != 2 || !(option[0].equals("--limit") || option[0].equals("--last"))) {
+                throw new WrongArgumentsException();
+            }
+            int count = Integer.parseInt(option[1]);
+            if (count <= 0) throw new NumberFormatException();
+            collectionControl.showSorted(count, option[0].equals("--last"));
+        } catch (NumberFormatException e) {
+            Console.err("кол-во должно быть целым числом больше нуля");
+        } catch (WrongArgumentsException e) {
+            Console.err("используйте sort, sort --limit N или sort --last N");
+        }
     }
 }
@@ -5,14 +5,17 @@ package commands;
 
 import exceptions.WrongArgumentsException;
 import support.CollectionControl;
+import support.CommunicationControl;
 import support.Console;
 
 public class UpdateByID extends AbstractCommand {
     CollectionControl collectionControl;
+    CommunicationControl communicationControl;
 
-    public UpdateByID(CollectionControl collectionControl) {
+    public UpdateByID(CollectionControl collectionControl, CommunicationControl communicationControl) {
         super("update_by_id", "Обновить значение элемента коллекции, id  которого равен заданному");
         this.collectionControl = collectionControl;
+        this.communicationControl = communicationControl;
     }
 
     /**
@@ -26,8 +29,7 @@ public class UpdateByID extends AbstractCommand {
             if (argument.isEmpty()) throw new WrongArgumentsException();
 
             int id = Integer.parseInt(argument.trim());
-            collectionControl.updateByID(id);
-            Console.writeln("Замена успешно завершена!");
+            if (collectionControl.updateByID(id, communicationControl)) Console.writeln("Замена успешно завершена!");
         } catch (WrongArgumentsException e) {
             Console.err(e.getMessage());
         } catch (NumberFormatException e) {
@@ -49,6 +49,16 @@ public class Coordinates {
         return "X:" + x + " Y:" + y;
     }
 
+    /**
+     * Appends the string representation of the {@code Coordinates} object to the builder.
+     *
+     * @param builder the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        return builder.append("X:").append(x).append(" Y:").append(y);
+    }
+
     /**
      * Returns a hash code for the {@code Coordinates} object.
      *
@@ -56,7 +66,7 @@ public class Coordinates {
      */
     @Override
     public int hashCode() {
-        return y + x;
+        return 31 * Objects.hashCode(x) + y;
     }
 
     /**
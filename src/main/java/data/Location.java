@@ -1,5 +1,7 @@
 package data;
 
+import java.util.Objects;
+
 /**
  * The Location class represents the location of a person or worker
  * /
@@ -80,12 +82,15 @@ public class Location {
      */
     @Override
     public int hashCode() {
-        return name.hashCode() + (int) y + (int) x + z;
+        int hash = Float.hashCode(x);
+        hash = 31 * hash + Long.hashCode(y);
+        hash = 31 * hash + z;
+        return 31 * hash + Objects.hashCode(name);
     }
 
     /**
      * Compares this location to the specified object. The result is true if and only if the argument is not null and
-     * is a Location object that has the same x, y, and z coordinates as this object.
+     * is a Location object that has the same x, y, and z coordinates and the same name as this object.
      *
      * @param obj the object to compare this Location against
      * @return true if the given object represents a Location equivalent to this location, false otherwise
@@ -95,7 +100,8 @@ public class Location {
         if (this == obj) return true;
         if (obj instanceof Location) {
             Location locationObj = (Location) obj;
-            return (x == locationObj.getX()) && (y == locationObj.getY()) && (z == locationObj.getZ());
+            return (Float.compare(x, locationObj.getX()) == 0) && (y == locationObj.getY()) && (z == locationObj.getZ()) &&
+                    Objects.equals(name, locationObj.getName());
         }
         return false;
     }
@@ -1,6 +1,7 @@
 package data;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 /**
 
  The Person class represents a person and contains information about their birthday, height, passport ID, and location.
@@ -86,7 +87,10 @@ public class Person implements Comparable<Person> {
      */
     @Override
     public int hashCode() {
-        return birthday.hashCode() + (int) height + passportID.hashCode() + location.hashCode();
+        int hash = Objects.hashCode(birthday);
+        hash = 31 * hash + Long.hashCode(height);
+        hash = 31 * hash + Objects.hashCode(passportID);
+        return 31 * hash + Objects.hashCode(location);
     }
 
     /**
@@ -111,8 +115,8 @@ public class Person implements Comparable<Person> {
         if (this == obj) return true;
         if (obj instanceof Person) {
             Person personObj = (Person) obj;
-            return (height == personObj.getHeight()) && location.equals(personObj.getLocation()) &&
-                    passportID.equals(personObj.getPassportID()) && birthday.equals(personObj.getBirthday());
+            return (height == personObj.getHeight()) && Objects.equals(location, personObj.getLocation()) &&
+                    Objects.equals(passportID, personObj.getPassportID()) && Objects.equals(birthday, personObj.getBirthday());
         }
         return false;
     }
@@ -126,10 +130,17 @@ public class Person implements Comparable<Person> {
      */
     @Override
     public String toString() {
-        String info = "";
-        info += "Birthday: " + birthday;
-        info += ", Height: " + height + "cm";
-        info += ", Passport ID: " + passportID;
-        return info;
+        return appendTo(new StringBuilder(80)).toString();
+    }
+
+    /**
+     * Appends the string representation of this person to the builder.
+     *
+     * @param builder the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        return builder.append("Birthday: ").append(birthday).append(", Height: ").append(height)
+                .append("cm, Passport ID: ").append(passportID);
     }
 }
\ No newline at end of file
@@ -16,7 +16,7 @@ public class Worker implements Comparable<Worker>{
     private Position position;
     private Status status;
     private Person person;
-    public static int idCounter = 0;
+    private static volatile int idCounter = 0;
 
     /**
      * Constructs a new Worker with the specified name, coordinates, salary, position, status, and person.
@@ -31,7 +31,7 @@ public class Worker implements Comparable<Worker>{
      */
     public Worker (String name, Coordinates coordinates,
                    Double salary, Position position, Status status, Person person){
-        this.id = ++idCounter;
+        this.id = nextId();
         this.name = name;
         this.coordinates = coordinates;
         this.creationDate = ZonedDateTime.now();
@@ -64,6 +64,40 @@ public class Worker implements Comparable<Worker>{
         this.person = person;
     }
 
+    /**
+     * Constructs a new Worker with all the fields given, including the creation date.
+     * It is used to restore a worker that was saved before.
+     *
+     * @param id the ID of the worker
+     * @param name the name of the worker
+     * @param coordinates the coordinates of the worker
+     * @param creationDate the creation date of the worker
+     * @param salary the salary of the worker
+     * @param position the position of the worker
+     * @param status the status of the worker
+     * @param person the personal information of the worker
+     */
+    public Worker (int id, String name, Coordinates coordinates, ZonedDateTime creationDate,
+                   Double salary, Position position, Status status, Person person){
+        this.id = id;
+        this.name = name;
+        this.coordinates = coordinates;
+        this.creationDate = creationDate;
+        this.salary = salary;
+        this.position = position;
+        this.status = status;
+        this.person = person;
+    }
+
+    /**
+     * Returns the creation date of the worker.
+     *
+     * @return the creation date of the worker
+     */
+    public ZonedDateTime getCreationDate() {
+        return creationDate;
+    }
+
     /**
      * Returns the name of the worker.
      *
@@ -73,6 +107,60 @@ public class Worker implements Comparable<Worker>{
         return name;
     }
 
+    /**
+     * Takes the next free ID. Workers may be created by several sessions at once, so the counter is only
+     * changed by this method, {@link #reserveId(int)}, {@link #releaseIds(int, int)} and {@link #resetIds()}.
+     *
+     * @return the new ID
+     */
+    public static synchronized int nextId() {
+        return ++idCounter;
+    }
+
+    /**
+     * Returns the last ID given out or reserved.
+     *
+     * @return the value of the ID counter
+     */
+    public static synchronized int lastId() {
+        return idCounter;
+    }
+
+    /**
+     * Starts the IDs from 1 again.
+     */
+    public static synchronized void resetIds() {
+        idCounter = 0;
+    }
+
+    /**
+     * Moves the ID counter past the given ID, so it is never given out by {@link #nextId()}.
+     *
+     * @param id the ID that is taken
+     */
+    public static synchronized void reserveId(int id) {
+        if (id > idCounter) idCounter = id;
+    }
+
+    /**
+     * Moves the ID counter back to the given value if nobody has taken an ID after the given last one.
+     *
+     * @param last  the last ID that is being released
+     * @param value the new value of the counter
+     */
+    public static synchronized void releaseIds(int last, int value) {
+        if (idCounter == last) idCounter = value;
+    }
+
+    /**
+     * Returns the ID of the worker.
+     *
+     * @return the ID of the worker
+     */
+    public int getID() {
+        return id;
+    }
+
     /**
      * Sets the ID of the worker.
      *
@@ -142,14 +230,20 @@ public class Worker implements Comparable<Worker>{
     }
 
     /**
-     * Overrides the hashCode method to generate a hash value for Worker objects based on their attributes.
+     * Overrides the hashCode method to generate a hash value for Worker objects based on the attributes compared by
+     * {@link #equals(Object)}. Each attribute is multiplied into the hash, so workers that differ only in the order
+     * of their values do not collide.
      *
      * @return an integer value representing the hash value of this object
      */
     @Override
     public int hashCode() {
-        return name.hashCode() + coordinates.hashCode() + (int) salary.hashCode() + position.hashCode() +
-                status.hashCode() + person.hashCode();
+        int hash = Objects.hashCode(name);
+        hash = 31 * hash + Objects.hashCode(coordinates);
+        hash = 31 * hash + Objects.hashCode(salary);
+        hash = 31 * hash + Objects.hashCode(position);
+        hash = 31 * hash + Objects.hashCode(status);
+        return 31 * hash + Objects.hashCode(person);
     }
 
     /**
@@ -163,9 +257,9 @@ public class Worker implements Comparable<Worker>{
         if (this == obj) return true;
         if (obj instanceof Worker) {
             Worker workerObj = (Worker) obj;
-            return name.equals(workerObj.getName()) && coordinates.equals(workerObj.getCoordinates()) &&
+            return Objects.equals(name, workerObj.getName()) && Objects.equals(coordinates, workerObj.getCoordinates()) &&
                     (Objects.equals(salary, workerObj.getSalary())) && (status == workerObj.getStatus()) &&
-                    (position == workerObj.getPosition()) && person.equals(workerObj.getPerson());
+                    (position == workerObj.getPosition()) && Objects.equals(person, workerObj.getPerson());
         }
         return false;
     }
@@ -177,8 +271,24 @@ public class Worker implements Comparable<Worker>{
      */
     @Override
     public String toString() {
-        return "Worker [id=" + id + ", name=" + name + ", coordinates=" + coordinates + ", creationDate="
-                + creationDate + ", salary=" + salary + ", position=" + position + ", status=" + status + ", person="
-                + person + "]";
+        return appendTo(new StringBuilder(192)).toString();
+    }
+
+    /**
+     * Appends the string representation of the Worker object to the builder, the same text as {@link #toString()}
+     * but without building the strings of the nested objects.
+     *
+     * @param builder the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        builder.append("Worker [id=").append(id).append(", name=").append(name).append(", coordinates=");
+        if (coordinates == null) builder.append("null");
+        else coordinates.appendTo(builder);
+        builder.append(", creationDate=").append(creationDate).append(", salary=").append(salary)
+                .append(", position=").append(position).append(", status=").append(status).append(", person=");
+        if (person == null) builder.append("null");
+        else person.appendTo(builder);
+        return builder.append(']');
     }
 }
@@ -0,0 +1,19 @@
+package exceptions;
+
+import java.io.IOException;
+
+/**
+ * This exception is thrown when a worker is given a passport ID that another worker of the collection already has.
+ */
+public class PassportTakenException extends IOException {
+
+    /**
+     * Constructs a new PassportTakenException for the given passport ID and the worker who has it.
+     *
+     * @param passportID the passport ID
+     * @param id         the ID of the worker who has the passport ID
+     */
+    public PassportTakenException(String passportID, int id) {
+        super("номер паспорта " + passportID + " уже есть у работника с id " + id);
+    }
+}
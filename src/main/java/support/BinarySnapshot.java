@@ -0,0 +1,169 @@
+/**
+ * The BinarySnapshot class saves the collection in a compact versioned binary format and loads it back.
+ * It is the fast restart path, XML stays the interchange format.
+ *
+ * <p>The file starts with a header: the magic number, the format version, the number of workers, the largest
+ * ID and the offset of the ID table. Then come the workers in collection order, each record is prefixed with
+ * its length and encoded by {@link WorkerCodec}. The file ends with the ID table: pairs of an ID and the offset
+ * of its record, sorted by ID, so a single worker can be found without reading the others.</p>
+ *
+ * <p>The file is written through a FileChannel with a large direct buffer and read through memory mapping.</p>
+ */
+package support;
+
+import data.Worker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public class BinarySnapshot {
+    public static final int MAGIC = 0x574B5253;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long MAP_WINDOW = 1L << 30;
+
+    private final String file;
+
+    /**
+     * Constructs a BinarySnapshot for the given file.
+     *
+     * @param file the path of the snapshot file
+     */
+    public BinarySnapshot(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Checks whether the path names a binary snapshot by its extension.
+     *
+     * @param file the path of the file
+     * @return true if the file has the ".bin" extension
+     */
+    public static boolean isBinaryFile(String file) {
+        return file.endsWith(".bin");
+    }
+
+    /**
+     * Checks whether the file starts with the magic number of a binary snapshot.
+     *
+     * @param file the path of the file
+     * @return true if the file is a binary snapshot
+     */
+    public static boolean isSnapshot(String file) {
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the workers to the file, replacing its content.
+     *
+     * @param workers the workers in collection order
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Collection<Worker> workers) throws IOException {
+        int count = workers.size();
+        int[] ids = new int[count];
+        long[] offsets = new long[count];
+        int maxId = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = HEADER_SIZE;
+            channel.position(position);
+            int index = 0;
+            for (Worker worker : workers) {
+                byte[] name = worker.getName().getBytes(StandardCharsets.UTF_8);
+                byte[] passportID = worker.getPerson().getPassportID().getBytes(StandardCharsets.UTF_8);
+                byte[] location = worker.getPerson().getLocation().getName().getBytes(StandardCharsets.UTF_8);
+                int size = WorkerCodec.fixedSize() + name.length + passportID.length + location.length;
+                ByteBuffer target = buffer;
+                if (size + 4 > buffer.remaining()) {
+                    drain(channel, buffer);
+                    if (size + 4 > buffer.capacity()) target = ByteBuffer.allocate(size + 4);
+                }
+                target.putInt(size);
+                WorkerCodec.write(target, worker, name, passportID, location);
+                if (target != buffer) drain(channel, target);
+                ids[index] = worker.getID();
+                offsets[index] = position;
+                maxId = Math.max(maxId, worker.getID());
+                position += size + 4;
+                index++;
+            }
+            long tableOffset = position;
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = ((long) ids[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            for (long entry : order) {
+                if (buffer.remaining() < 12) drain(channel, buffer);
+                int i = (int) entry;
+                buffer.putInt(ids[i]).putLong(offsets[i]);
+            }
+            drain(channel, buffer);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(maxId).putLong(tableOffset).flip();
+            long at = 0;
+            while (buffer.hasRemaining()) at += channel.write(buffer, at);
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Reads all workers of the file in collection order. The file is memory mapped in windows of up to 1 GB.
+     *
+     * @return the workers of the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot of a supported version
+     */
+    public List<Worker> read() throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) throw new IOException("файл не является бинарным снимком коллекции");
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("неподдерживаемая версия снимка: " + version);
+            int count = header.getInt();
+            header.getInt();
+            long tableOffset = header.getLong();
+
+            List<Worker> workers = new ArrayList<>(count);
+            long position = HEADER_SIZE;
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            while (workers.size() < count) {
+                if (position + 4 > tableOffset) throw new IOException("снимок поврежден");
+                if (window == null || position + 4 > windowStart + window.limit()
+                        || position + 4 + window.getInt((int) (position - windowStart)) > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, tableOffset - position));
+                }
+                window.position((int) (position - windowStart));
+                int size = window.getInt();
+                workers.add(WorkerCodec.read(window));
+                position += size + 4;
+            }
+            return workers;
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
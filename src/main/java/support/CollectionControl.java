@@ -6,6 +6,10 @@
  * the mapping of available commands, and a LocalDateTime variable to keep track of the time of initialization
  * of the collection. The class has public methods for adding, removing and updating elements of the collection,
  * as well as for displaying information about the collection.
+ * <p>
+ * The collection can be shared by several sessions. Commands that only read it take a read lock and run in
+ * parallel: they copy what they need under the lock and print it after releasing it, so a slow client does
+ * not hold back the writers. Commands that change it take the write lock and run one at a time.
  */
 package support;
 
@@ -14,23 +18,35 @@ import data.Person;
 import data.Status;
 import data.Worker;
 import exceptions.InputException;
+import exceptions.PassportTakenException;
 
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 public class CollectionControl {
-    private final ArrayList<Worker> workersCollection = new ArrayList<>();
+    private static final int SHOW_PAGE = 512;
+    private final SortedViews workersCollection;
+    private final DuplicateIndex duplicates;
+    private final PassportIndex passports;
     HashMap<String, Command> BufferOfCommandMap;
     protected static LocalDateTime timeInitialization = null;
     FileControl fileControl;
     CommunicationControl communicationControl;
+    private Journal journal;
+    private volatile LazySnapshot snapshot;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HashMap<CommunicationControl, Batch> batches = new HashMap<>();
 
     /**
      * Constructor for the CollectionControl class. It initializes the fileControl and communicationControl objects
-     * and sets the BufferOfCommandMap to null.
+     * and sets the BufferOfCommandMap to null. The workers are kept in a {@link ColumnarWorkerStore} if the
+     * "--columnar" option was passed, and in a {@link MapWorkerStore} otherwise. The store is wrapped by the
+     * {@link DuplicateIndex}, the {@link PassportIndex} and then by the {@link SortedViews}.
      *
      * @param fileControl          the FileControl object to use for reading/writing data from/to files
      * @param communicationControl the CommunicationControl object to use for receiving input from the user
@@ -40,6 +56,9 @@ public class CollectionControl {
         this.fileControl = fileControl;
         this.communicationControl = communicationControl;
         this.BufferOfCommandMap = null;
+        this.duplicates = new DuplicateIndex(fileControl.hasOption("--columnar") ? new ColumnarWorkerStore() : new MapWorkerStore());
+        this.passports = new PassportIndex(duplicates);
+        this.workersCollection = new SortedViews(passports);
     }
 
     /**
@@ -53,6 +72,136 @@ public class CollectionControl {
     }
 
 
+    /**
+     * Starts writing every change of the collection to the given journal.
+     *
+     * @param journal the journal of the collection, or null to stop journaling
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Attaches a memory-mapped snapshot to the empty collection. Its workers count as elements of the collection,
+     * but they are decoded only when a command needs them: updating or removing a single worker only drops it from
+     * the snapshot, the passport checks and find_by_passport read the passport IDs of the records and decode only
+     * the workers they return. show pages through the ID table and decodes the workers of the page alone, the
+     * status and salary queries, add_if_min and the duplicate check read only the field they need from each record.
+     * sort, the sorted views and compaction reorder or rewrite every worker, so they materialize the whole snapshot
+     * once.
+     *
+     * @param snapshot the opened snapshot
+     */
+    public void attachSnapshot(LazySnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            this.snapshot = snapshot;
+            Worker.reserveId(snapshot.maxId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Decodes the whole attached snapshot now instead of on the first command that needs it. While a snapshot is
+     * attached, the read-only commands that materialize it take the write lock, so they run one at a time; a server
+     * calls this before it accepts clients so that their read-only commands share the read lock from the start.
+     *
+     * @throws UncheckedIOException if a record of the snapshot is damaged; the snapshot then stays attached
+     */
+    public void materializeSnapshot() {
+        materializeShared();
+    }
+
+    /**
+     * Returns a copy of the workers in the collection, in iteration order. While a snapshot is attached its workers
+     * are decoded one by one into the copy and the snapshot stays attached.
+     *
+     * @return the workers of the collection
+     * @throws UncheckedIOException if a record of the snapshot is damaged
+     */
+    public List<Worker> getWorkers() {
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) return new ArrayList<>(workersCollection.values());
+            ArrayList<Worker> workers = new ArrayList<>(size());
+            visitRange(0, Integer.MAX_VALUE, workers::add);
+            return workers;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of a range of the workers in the collection, in iteration order.
+     *
+     * @param offset the number of workers to skip
+     * @param limit  the largest number of workers to return
+     * @return the workers of the range, fewer than the limit at the end of the collection
+     * @throws UncheckedIOException if a record of the snapshot is damaged
+     */
+    public List<Worker> getWorkers(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            ArrayList<Worker> page = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+            if (snapshot != null) {
+                visitRange(offset, limit, page::add);
+                return page;
+            }
+            Iterator<Worker> workers = workersCollection.values().iterator();
+            for (int i = 0; i < offset && workers.hasNext(); i++) workers.next();
+            while (page.size() < limit && workers.hasNext()) page.add(workers.next());
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes a range of the workers to the consumer in the order the materialized collection would have, without
+     * materializing the snapshot. The ID table of the snapshot is walked in file order and only the workers of the
+     * range are decoded, each alone by its ID; a worker updated since takes the place of its record, and the
+     * workers added since come last. The caller must hold the lock.
+     *
+     * @throws UncheckedIOException if a record of the snapshot is damaged
+     */
+    private void visitRange(int offset, int limit, Consumer<Worker> consumer) {
+        if (limit <= 0) return;
+        int[] position = {0};
+        int[] visited = {0};
+        snapshot.walkIds((id, pending) -> {
+            Worker worker = pending ? null : workersCollection.get(id);
+            if (!pending && worker == null) return true;
+            if (position[0]++ < offset) return true;
+            consumer.accept(pending ? decode(id) : worker);
+            return ++visited[0] < limit;
+        });
+        if (visited[0] == limit) return;
+        for (Worker worker : workersCollection.values()) {
+            if (snapshot.has(worker.getID()) || position[0]++ < offset) continue;
+            consumer.accept(worker);
+            if (++visited[0] == limit) return;
+        }
+    }
+
+    /**
+     * Puts the given worker into the collection under its own ID, replacing the worker with the same ID if there is one.
+     * It is used to replay the journal, where a record may be applied to a snapshot that already contains it.
+     *
+     * @param worker the worker to put into the collection.
+     */
+    public void restore(Worker worker) {
+        lock.writeLock().lock();
+        try {
+            if (!update(worker)) {
+                Worker.reserveId(worker.getID());
+                addToCollection(worker);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     /**
      * Returns the current BufferOfCommandMap HashMap.
      *
@@ -63,40 +212,90 @@ public class CollectionControl {
     }
 
     /**
-     * Clears the workersCollection ArrayList.
+     * Clears the workersCollection map and starts the IDs from 1 again.
      */
 
     public void clear() {
-        workersCollection.clear();
-        Console.writeln("Коллекция очистилась...");
-
+        lock.writeLock().lock();
+        try {
+            snapshot = null;
+            workersCollection.clear();
+            Worker.resetIds();
+            if (journal != null) {
+                journal.logClear();
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Sorts the workersCollection ArrayList in ascending order based on the natural ordering of the elements.
+     * Sorts the workersCollection map in ascending order based on the natural ordering of the elements, workers
+     * with the same name by ID. The IDs of the workers do not change, only the iteration order does. If the view
+     * by name is kept, its order is taken as it is.
      */
     public void sort() {
-        Collections.sort(workersCollection);
+        lock.writeLock().lock();
+        try {
+            materialize();
+            SortedViews.Order order = SortedViews.Order.NAME;
+            Worker[] sorted = workersCollection.hasView(order) ? workersCollection.view(order).toArray(new Worker[0])
+                    : SortEngine.sortWorkers(workersCollection.values(), order.comparator());
+            workersCollection.reorder(sorted);
+            if (journal != null) {
+                journal.logSort();
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Removes all elements from the workersCollection ArrayList that are greater than the specified Worker object
-     * based on the natural ordering of the elements.
+     * Removes all elements from the workersCollection map that are greater than the specified Worker object
+     * based on the natural ordering of the elements, that is whose name comes after its name.
      *
      * @param enotherWorker the Worker object to compare the elements to
+     * @return the number of removed workers
+     */
+    public int removeGreater(Worker enotherWorker) {
+        return removeGreater(enotherWorker.getName());
+    }
+
+    /**
+     * Removes all workers whose name comes after the given one. The workers are cut off the view by name in one go
+     * if it is kept, and the whole removal is a single record of the journal.
+     *
+     * @param name the name the removed workers are greater than
+     * @return the number of removed workers
      */
-    public void removeGreater(Worker enotherWorker) {
-        workersCollection.removeIf(worker -> enotherWorker.compareTo(worker) > 0);
+    public int removeGreater(String name) {
+        lock.writeLock().lock();
+        try {
+            materialize();
+            int removed = workersCollection.removeGreater(name).size();
+            if (journal != null && removed > 0) {
+                journal.logRemoveGreater(name);
+                compactIfNeeded();
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Saves the current workersCollection ArrayList to a file with the specified name.
+     * Saves the current workersCollection map to a file with the specified name.
      *
      * @param file the name of the file to save the collection to
      */
     public void saveCollection(String file) {
         try {
-            fileControl.writeToFile(workersCollection, file);
+            List<Worker> workers = getWorkers();
+            synchronized (fileControl) {
+                fileControl.writeToFile(workers, file);
+            }
         } catch (IOException | XMLStreamException e) {
             throw new RuntimeException(e);
         }
@@ -104,6 +303,7 @@ public class CollectionControl {
 
     /**
      * Filters workers with a status greater than the given string and returns an ArrayList of the filtered workers.
+     * The workers are grouped by status, as the store returns them.
      *
      * @param line the status to compare against.
      * @return an ArrayList of the filtered workers.
@@ -111,30 +311,66 @@ public class CollectionControl {
      */
 
     public ArrayList<Worker> filterGreaterThanStatus(String line) throws IllegalArgumentException {
-        ArrayList<Worker> workerList = new ArrayList<>();
         try {
-            Status person = Status.valueOf(line.toUpperCase());
-
-
-            for (Worker worker : workersCollection) {
-                if (person.ordinal() < worker.getStatus().ordinal()) {
-                    workerList.add(worker);
-                }
+            Status status = Status.valueOf(line.toUpperCase());
+            lock.readLock().lock();
+            try {
+                if (snapshot == null) return workersCollection.greaterThanStatus(status);
+                return greaterThanStatusWithSnapshot(status);
+            } finally {
+                lock.readLock().unlock();
             }
-            return workerList;
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException();
         }
     }
 
+    /**
+     * Returns the workers with a status greater than the given one while a snapshot is attached. Only the statuses
+     * of the records are read and only the matching workers are decoded; within each status the workers of the
+     * snapshot come first, in file order. The caller must hold the lock.
+     *
+     * @throws UncheckedIOException if a record of the snapshot is damaged
+     */
+    private ArrayList<Worker> greaterThanStatusWithSnapshot(Status status) {
+        Status[] statuses = Status.values();
+        List<List<Integer>> pending = new ArrayList<>(statuses.length);
+        for (int i = 0; i < statuses.length; i++) pending.add(new ArrayList<>());
+        scanSnapshot(snapshot -> snapshot.walkStatuses((id, recorded) -> {
+            if (recorded.compareTo(status) > 0) pending.get(recorded.ordinal()).add(id);
+        }));
+        ArrayList<Worker> stored = workersCollection.greaterThanStatus(status);
+        ArrayList<Worker> workers = new ArrayList<>(stored.size() + size() - workersCollection.size());
+        for (int i = status.ordinal() + 1; i < statuses.length; i++) {
+            workers.addAll(workersByID(pending.get(i)));
+            for (Worker worker : stored) {
+                if (worker.getStatus() == statuses[i]) workers.add(worker);
+            }
+        }
+        return workers;
+    }
+
     /**
      * Groups the workers in the collection by their status and outputs the number of workers for each status.
+     * The counts are taken from the store, and the statuses of the workers still in the snapshot are read
+     * without decoding the rest of their records.
+     *
+     * @throws UncheckedIOException if a record of the snapshot is damaged
      */
     public void gropByStatus() {
-
-        Map<Status, List<Worker>> workersByStatus = workersCollection.stream().collect(Collectors.groupingBy(Worker::getStatus));
-        for (Status status : workersByStatus.keySet()) {
-            Console.writeln("Кол-во работников со статусом '" + status + "': " + workersByStatus.get(status).size());
+        Status[] statuses = Status.values();
+        int[] counts = new int[statuses.length];
+        lock.readLock().lock();
+        try {
+            for (Status status : statuses) {
+                counts[status.ordinal()] = workersCollection.countByStatus(status);
+            }
+            if (snapshot != null) scanSnapshot(snapshot -> snapshot.walkStatuses((id, status) -> counts[status.ordinal()]++));
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (Status status : statuses) {
+            if (counts[status.ordinal()] > 0) Console.writeln("Кол-во работников со статусом '" + status + "': " + counts[status.ordinal()]);
         }
     }
 
@@ -142,92 +378,767 @@ public class CollectionControl {
      * Outputs information about the worker collection, including the type, time of initialization, and number of elements.
      */
     public void getInfo() {
-        Console.writeln("Тип: Worker" + "\n" + "Время инициализации: " + timeInitialization + "\n" + "количество элементов: " + workersCollection.size());
+        int size;
+        lock.readLock().lock();
+        try {
+            size = size();
+        } finally {
+            lock.readLock().unlock();
+        }
+        Console.writeln("Тип: Worker" + "\n" + "Время инициализации: " + timeInitialization + "\n" + "количество элементов: " + size);
 
     }
 
     /**
-     * Sorts the workers in the collection by their person object and outputs the sorted list.
+     * Sorts the workers in the collection by their person object and outputs the sorted list. Persons with the same
+     * birthday are ordered by the IDs of their workers, whether the birthday view is kept or not.
      */
     public void sortPerson() {
-        ArrayList<Person> sortedPerson = new ArrayList<>();
-        for (Worker worker : workersCollection)
-            sortedPerson.add(worker.getPerson());
-        Collections.sort(sortedPerson);
+        List<Person> sortedPerson = new ArrayList<>();
+        materializeShared();
+        lock.readLock().lock();
+        try {
+            if (workersCollection.hasView(SortedViews.Order.BIRTHDAY)) {
+                for (Worker worker : workersCollection.view(SortedViews.Order.BIRTHDAY))
+                    sortedPerson.add(worker.getPerson());
+            } else {
+                sortedPerson = Arrays.asList(SortEngine.sortPersonsOf(workersCollection.values()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
         for (Person person : sortedPerson) {
             Console.writeln(person.toString());
         }
     }
 
+    /**
+     * Outputs the persons with the earliest or the latest birthdays, in ascending order, without sorting the others.
+     *
+     * @param count the number of persons to output.
+     * @param last  true for the latest birthdays, false for the earliest.
+     */
+    public void sortPerson(int count, boolean last) {
+        for (Worker worker : select(SortedViews.Order.BIRTHDAY, count, last)) {
+            Console.writeln(worker.getPerson().toString());
+        }
+    }
+
+    /**
+     * Outputs the first or the last workers of the natural order, in ascending order. Unlike {@link #sort()},
+     * the collection is not reordered and the workers not among them are not sorted.
+     *
+     * @param count the number of workers to output.
+     * @param last  true for the last workers, false for the first.
+     */
+    public void showSorted(int count, boolean last) {
+        print(select(SortedViews.Order.NAME, count, last));
+    }
+
+    /**
+     * Returns the first or the last workers of the order, in ascending order. They are read from the view of the
+     * order if it is kept, and picked with a heap otherwise.
+     */
+    private List<Worker> select(SortedViews.Order order, int count, boolean last) {
+        materializeShared();
+        lock.readLock().lock();
+        try {
+            if (!workersCollection.hasView(order)) {
+                return last ? SortEngine.last(workersCollection.values(), count, order.comparator())
+                        : SortEngine.first(workersCollection.values(), count, order.comparator());
+            }
+            NavigableSet<Worker> view = workersCollection.view(order);
+            ArrayList<Worker> selected = new ArrayList<>(Math.min(count, view.size()));
+            for (Worker worker : last ? view.descendingSet() : view) {
+                if (selected.size() == count) break;
+                selected.add(worker);
+            }
+            if (last) Collections.reverse(selected);
+            return selected;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Outputs a page of the workers in the order of a view, building the view if it is not kept yet. The page
+     * starts after the given worker, so a client can walk the whole view page by page while the collection changes.
+     *
+     * @param order the order of the view.
+     * @param after the last worker of the previous page, or null to start at the beginning.
+     * @param skip  the number of workers to skip before the page.
+     * @param limit the largest number of workers to output.
+     * @return the workers output.
+     */
+    public List<Worker> showView(SortedViews.Order order, Worker after, int skip, int limit) {
+        ArrayList<Worker> page = new ArrayList<>();
+        NavigableSet<Worker> view = readView(order);
+        try {
+            Iterator<Worker> workers = (after == null ? view : view.tailSet(after, false)).iterator();
+            for (int i = 0; i < skip && workers.hasNext(); i++) workers.next();
+            while (page.size() < limit && workers.hasNext()) page.add(workers.next());
+        } finally {
+            lock.readLock().unlock();
+        }
+        print(page);
+        return page;
+    }
+
+    /**
+     * Returns the view of the order with the read lock held, so the caller must release it. A view that is not
+     * kept yet is built under the write lock, which is then downgraded to the read lock. While a snapshot is
+     * attached the write lock is taken first to decode it, so concurrent calls share the read lock only once the
+     * collection has been materialized.
+     */
+    private NavigableSet<Worker> readView(SortedViews.Order order) {
+        materializeShared();
+        lock.readLock().lock();
+        if (workersCollection.hasView(order)) return workersCollection.view(order);
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            materialize();
+            NavigableSet<Worker> view = workersCollection.view(order);
+            lock.readLock().lock();
+            return view;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     /**
      * Removes the worker from the collection with the given ID.
      *
      * @param id the ID of the worker to remove.
+     * @return true if the worker was removed, false if there is no worker with such ID.
      */
-    public void removeElementByID(int id) {
+    public boolean removeElementByID(int id) {
+        lock.writeLock().lock();
         try {
-            workersCollection.remove(id);
-        } catch (NoSuchElementException e) {
-            Console.err("Элемента с такии id нет в коллекции");
+            if (workersCollection.remove(id) == null && (snapshot == null || !snapshot.drop(id))) return false;
+            if (journal != null) {
+                journal.logRemove(id);
+                compactIfNeeded();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     /**
-     * Outputs each worker in the collection using their toString method.
+     * Outputs each worker in the collection, {@value #SHOW_PAGE} workers per write.
      */
 
     public void show() {
-        for (Worker worker : workersCollection) {
-            Console.writeln(worker.toString());
+        print(getWorkers());
+    }
+
+    /**
+     * Outputs a range of the workers in the collection, in iteration order.
+     *
+     * @param offset the number of workers to skip
+     * @param limit  the largest number of workers to output
+     * @return the number of workers output
+     */
+    public int show(int offset, int limit) {
+        List<Worker> page = getWorkers(offset, limit);
+        print(page);
+        return page.size();
+    }
+
+    /**
+     * Renders the workers into one builder, one line each, and writes the builder out every
+     * {@value #SHOW_PAGE} workers.
+     */
+    private static void print(List<Worker> workers) {
+        StringBuilder page = new StringBuilder(SHOW_PAGE * 256);
+        String separator = System.lineSeparator();
+        for (int i = 0; i < workers.size(); i++) {
+            workers.get(i).appendTo(page).append(separator);
+            if ((i + 1) % SHOW_PAGE == 0) {
+                Console.writePage(page);
+                page.setLength(0);
+            }
+        }
+        if (page.length() > 0) Console.writePage(page);
+    }
+
+    /**
+     * Opens a batch for the given input. Until the batch is committed, workers added from this input are staged
+     * instead of being put into the collection, and the prompts of the input are not printed. The other commands
+     * work on the collection without the staged workers. Every session has a batch of its own, so the sessions
+     * can stage workers at the same time.
+     *
+     * @param input the input of the session that opens the batch
+     * @return true if the batch was opened, false if the input already has a batch open.
+     */
+    public boolean beginBatch(CommunicationControl input) {
+        lock.writeLock().lock();
+        try {
+            if (batches.containsKey(input)) return false;
+            batches.put(input, new Batch(input.isQuiet(), Worker.lastId()));
+            input.setQuiet(true);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the given input has a batch open.
+     *
+     * @param input the input of the session
+     * @return true if the workers added from the input are being staged.
+     */
+    public boolean inBatch(CommunicationControl input) {
+        lock.readLock().lock();
+        try {
+            return input != null && batches.containsKey(input);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the batch of the given input as failed, so it is rolled back instead of being committed.
+     * It does nothing if the input has no open batch.
+     *
+     * @param input the input of the session
+     */
+    public void failBatch(CommunicationControl input) {
+        lock.writeLock().lock();
+        try {
+            Batch batch = batches.get(input);
+            if (batch != null) batch.failed = true;
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     /**
-     * Adds the given worker to the collection.
+     * Closes the batch of the given input. If every staged worker was valid, all of them are put into the collection
+     * at once and written to the journal with a single sync. Otherwise nothing is added and the IDs given to the
+     * staged workers are released. A batch is also rolled back if another session has taken the passport ID of
+     * a staged worker since it was staged.
+     *
+     * @param input the input of the session
+     * @return the number of added workers, or -1 if the batch was rolled back.
+     * @throws IllegalStateException if the input has no open batch.
+     */
+    public int commitBatch(CommunicationControl input) {
+        lock.writeLock().lock();
+        try {
+            Batch batch = batches.remove(input);
+            if (batch == null) throw new IllegalStateException("пакет не начат");
+            ArrayList<Worker> staged = batch.staged;
+            input.setQuiet(batch.wasQuiet);
+            if (!batch.failed && !staged.isEmpty()) {
+                buildPassports();
+                for (Worker worker : staged) {
+                    if (passports.holder(worker.getPerson().getPassportID(), PassportIndex.NO_ID) != PassportIndex.NO_ID) batch.failed = true;
+                }
+            }
+            if (batch.failed) {
+                int last = batch.idCounter;
+                for (Worker worker : staged) last = Math.max(last, worker.getID());
+                Worker.releaseIds(last, batch.idCounter);
+                return -1;
+            }
+            for (Worker worker : staged) {
+                if (contains(worker.getID())) worker.setID(Worker.nextId());
+                Worker.reserveId(worker.getID());
+                workersCollection.put(worker);
+            }
+            if (journal != null && !staged.isEmpty()) {
+                journal.logBatch(staged);
+                compactIfNeeded();
+            }
+            return staged.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the batch of the given input without adding the staged workers.
+     *
+     * @param input the input of the session
+     * @return the number of dropped workers.
+     * @throws IllegalStateException if the input has no open batch.
+     */
+    public int rollbackBatch(CommunicationControl input) {
+        lock.writeLock().lock();
+        try {
+            failBatch(input);
+            Batch batch = batches.get(input);
+            int staged = batch != null ? batch.staged.size() : 0;
+            commitBatch(input);
+            return staged;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the given worker to the collection. If its ID is already taken, the worker gets a new one.
      *
      * @param worker the worker to add to the collection.
      */
     public void addToCollection(Worker worker) {
-        workersCollection.add(worker);
+        lock.writeLock().lock();
+        try {
+            if (contains(worker.getID())) worker.setID(Worker.nextId());
+            Worker.reserveId(worker.getID());
+            workersCollection.put(worker);
+            if (journal != null) {
+                journal.logAdd(worker);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the worker entered from the given input to the collection. While the input has a batch open,
+     * the worker is staged until the batch is committed. The passport ID of the worker must not belong to another
+     * worker of the collection or of the batch; a rejected worker gives back its ID if it was the last one given out.
+     *
+     * @param worker the worker to add to the collection.
+     * @param input  the input of the session the worker was entered from.
+     * @throws PassportTakenException if another worker has the passport ID.
+     */
+    public void addToCollection(Worker worker, CommunicationControl input) throws PassportTakenException {
+        lock.writeLock().lock();
+        try {
+            try {
+                requireFreePassport(worker, input);
+            } catch (PassportTakenException e) {
+                Worker.releaseIds(worker.getID(), worker.getID() - 1);
+                throw e;
+            }
+            Batch batch = input != null ? batches.get(input) : null;
+            if (batch != null) batch.staged.add(worker);
+            else addToCollection(worker);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the worker entered from the given input to the collection unless a worker with the same content is already
+     * there. The equal worker is found through the {@link DuplicateIndex} and, while a snapshot is attached, among its
+     * records with the same salary; while the input has a batch open, the staged
+     * workers are checked as well and the worker is staged. A rejected worker gives back its ID if it was the last
+     * one given out.
+     *
+     * @param worker the worker to add to the collection.
+     * @param input  the input of the session the worker was entered from, or null.
+     * @return the equal worker that is already in the collection, or null if the worker was added.
+     * @throws PassportTakenException if another worker has the passport ID.
+     */
+    public Worker addUnique(Worker worker, CommunicationControl input) throws PassportTakenException {
+        lock.writeLock().lock();
+        try {
+            Worker existing = duplicates.find(worker);
+            if (existing == null && snapshot != null) existing = findInSnapshot(worker);
+            Batch batch = input != null ? batches.get(input) : null;
+            if (existing == null && batch != null) {
+                int staged = batch.staged.indexOf(worker);
+                if (staged >= 0) existing = batch.staged.get(staged);
+            }
+            if (existing == null) {
+                addToCollection(worker, input);
+                return null;
+            }
+            Worker.releaseIds(worker.getID(), worker.getID() - 1);
+            return existing;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the workers with the given passport ID through the {@link PassportIndex}. The index is built under
+     * the write lock the first time; after that a lookup needs only the read lock. A worker still in the snapshot
+     * is decoded alone and stays in the snapshot.
+     *
+     * @param passportID the passport ID.
+     * @return the workers with the passport ID, usually one, or none.
+     * @throws UncheckedIOException if a record of the snapshot is damaged
+     */
+    public List<Worker> findByPassport(String passportID) {
+        lock.readLock().lock();
+        try {
+            if (passports.isBuilt()) return workersByID(passports.find(passportID));
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            buildPassports();
+            return workersByID(passports.find(passportID));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the workers with the given IDs, taking them from the store or decoding them from the snapshot.
+     * The caller must hold the lock.
+     */
+    private List<Worker> workersByID(List<Integer> ids) {
+        return workersByID(ids.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private ArrayList<Worker> workersByID(int[] ids) {
+        ArrayList<Worker> workers = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Worker worker = workersCollection.get(id);
+            if (worker == null && snapshot != null) worker = decode(id);
+            if (worker != null) workers.add(worker);
+        }
+        return workers;
+    }
+
+    /**
+     * Decodes the worker with the given ID from the snapshot, leaving it there. The caller must hold the lock.
+     *
+     * @return the worker, or null if it is not pending
+     * @throws UncheckedIOException if the record is damaged
+     */
+    private Worker decode(int id) {
+        try {
+            return snapshot.read(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Неверные данные в бинарном файле: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Runs a walk over the records of the attached snapshot. The caller must hold the lock.
+     *
+     * @throws UncheckedIOException if a record of the snapshot is damaged
+     */
+    private void scanSnapshot(SnapshotScan scan) {
+        try {
+            scan.run(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Неверные данные в бинарном файле: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new UncheckedIOException("Неверные данные в бинарном файле: " + e.getMessage(), new IOException(e));
+        }
+    }
+
+    /**
+     * Returns the smallest salary in the collection, reading only the salaries of the workers still in the
+     * snapshot. The caller must hold the lock.
+     *
+     * @return the smallest salary, or positive infinity if the collection is empty
+     * @throws UncheckedIOException if a record of the snapshot is damaged
+     */
+    private double minSalary() {
+        double[] min = {workersCollection.size() == 0 ? Double.POSITIVE_INFINITY : workersCollection.minSalary()};
+        if (snapshot != null) scanSnapshot(snapshot -> snapshot.walkSalaries((id, salary) -> min[0] = Math.min(min[0], salary)));
+        return min[0];
+    }
+
+    /**
+     * Returns a worker of the snapshot equal to the given one. Only the salaries of the records are read, and only
+     * the workers with the same salary are decoded and compared. The caller must hold the lock.
+     *
+     * @return the equal worker, or null if there is none
+     * @throws UncheckedIOException if a record of the snapshot is damaged
+     */
+    private Worker findInSnapshot(Worker worker) {
+        List<Integer> candidates = new ArrayList<>();
+        scanSnapshot(snapshot -> snapshot.walkSalaries((id, salary) -> {
+            if (Double.compare(salary, worker.getSalary()) == 0) candidates.add(id);
+        }));
+        for (Worker candidate : workersByID(candidates)) {
+            if (worker.equals(candidate)) return candidate;
+        }
+        return null;
     }
 
     /**
      * Adds the given worker to the collection if their salary is smaller than the minimum salary in the collection.
+     * The minimum is taken from the store.
      *
      * @param newWorker the worker to add to the collection.
      * @return true if the worker was added, false otherwise.
+     * @throws PassportTakenException if another worker has the passport ID.
      */
 
-    public boolean addIfSmallerSalary(Worker newWorker) {
-        if (workersCollection.isEmpty() || newWorker.getSalary() < Collections.min(workersCollection, Comparator.comparing(Worker::getSalary)).getSalary()) {
-            workersCollection.add(newWorker);
-            return true;
+    public boolean addIfSmallerSalary(Worker newWorker) throws PassportTakenException {
+        return addIfSmallerSalary(newWorker, null);
+    }
+
+    /**
+     * Adds the worker entered from the given input to the collection if their salary is smaller than the minimum
+     * salary in the collection. While the input has a batch open, the worker is staged.
+     *
+     * @param newWorker the worker to add to the collection.
+     * @param input     the input of the session the worker was entered from, or null.
+     * @return true if the worker was added, false otherwise.
+     * @throws PassportTakenException if another worker has the passport ID.
+     */
+    public boolean addIfSmallerSalary(Worker newWorker, CommunicationControl input) throws PassportTakenException {
+        lock.writeLock().lock();
+        try {
+            if (size() == 0 || newWorker.getSalary() < minSalary()) {
+                addToCollection(newWorker, input);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the workers whose salary is between the given bounds, in ascending order of salary.
+     *
+     * @param from the lower bound, inclusive.
+     * @param to   the upper bound, inclusive.
+     * @return an ArrayList of the workers in the range.
+     */
+    public ArrayList<Worker> filterBySalary(double from, double to) {
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) return workersCollection.salaryRange(from, to);
+            SalaryIndex range = new SalaryIndex();
+            for (Worker worker : workersCollection.salaryRange(from, to)) range.add(worker.getSalary(), worker.getID());
+            scanSnapshot(snapshot -> snapshot.walkSalaries((id, salary) -> {
+                if (Double.compare(salary, from) >= 0 && Double.compare(salary, to) <= 0) range.add(salary, id);
+            }));
+            return workersByID(range.range(from, to));
+        } finally {
+            lock.readLock().unlock();
         }
-        return false;
     }
 
     /**
-     * Updates the worker in the collection with the given ID.
+     * Returns the worker whose salary is the given percentile of the salaries in the collection,
+     * for example 50 for the median.
      *
-     * @param id the ID of the worker to update.
+     * @param percentile the percentile, from 0 to 100.
+     * @return the worker, or null if the collection is empty.
      */
-    public void updateByID(int id) {
+    public Worker salaryPercentile(double percentile) {
+        lock.readLock().lock();
         try {
-            if (id > workersCollection.size()) throw new InputException();
-            workersCollection.set(id - 1, new Worker(id, communicationControl.setName(), communicationControl.setCoordinates(), communicationControl.setSalary(), communicationControl.choosePosition(), communicationControl.chooseStatus(), communicationControl.setPerson()).setID(id));
+            if (snapshot == null) return workersCollection.salaryPercentile(percentile);
+            SalaryIndex salaries = new SalaryIndex();
+            for (Worker worker : workersCollection.values()) salaries.add(worker.getSalary(), worker.getID());
+            scanSnapshot(snapshot -> snapshot.walkSalaries((id, salary) -> salaries.add(salary, id)));
+            int id = salaries.percentile(percentile);
+            return id < 0 ? null : workersByID(new int[]{id}).get(0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
 
+    /**
+     * Updates the worker in the collection with the given ID. No lock is held while the new values are asked for,
+     * so the worker may be removed by another session in the meantime. The new passport ID must not belong to
+     * another worker.
+     *
+     * @param id                   the ID of the worker to update.
+     * @param communicationControl the input the new values are read from.
+     * @return true if the worker was replaced, false if the failure was reported to the user.
+     */
+    public boolean updateByID(int id, CommunicationControl communicationControl) {
+        try {
+            lock.readLock().lock();
+            try {
+                if (!contains(id)) throw new InputException();
+            } finally {
+                lock.readLock().unlock();
+            }
+            Worker worker = new Worker(id, communicationControl.setName(), communicationControl.setCoordinates(), communicationControl.setSalary(), communicationControl.choosePosition(), communicationControl.chooseStatus(), communicationControl.setPerson());
+            lock.writeLock().lock();
+            try {
+                requireFreePassport(worker, null);
+                if (!update(worker)) throw new InputException();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        } catch (PassportTakenException e) {
+            Console.err(e.getMessage());
         } catch (InputException e) {
             Console.err("такого рабочего нет");
         }
+        return false;
+    }
+
+    /**
+     * Replaces the worker with the same ID by the given one.
+     *
+     * @param worker the new version of the worker.
+     * @return true if the worker was replaced, false if there is no worker with such ID.
+     */
+    public boolean update(Worker worker) {
+        lock.writeLock().lock();
+        try {
+            if (!workersCollection.contains(worker.getID()) && (snapshot == null || !snapshot.drop(worker.getID()))) return false;
+            workersCollection.put(worker);
+            if (journal != null) {
+                journal.logUpdate(worker);
+                compactIfNeeded();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks that no other worker of the collection, or of the batch of the input, has the passport ID of the given
+     * worker. The caller must hold the write lock. The workers still in the snapshot are checked through their
+     * passport IDs alone, so the snapshot stays attached.
+     *
+     * @param worker the new worker or the new version of a worker.
+     * @param input  the input of the session, or null.
+     * @throws PassportTakenException if another worker has the passport ID.
+     * @throws UncheckedIOException   if a record of the snapshot is damaged.
+     */
+    private void requireFreePassport(Worker worker, CommunicationControl input) throws PassportTakenException {
+        buildPassports();
+        String passportID = worker.getPerson().getPassportID();
+        int holder = passports.holder(passportID, worker.getID());
+        Batch batch = input != null ? batches.get(input) : null;
+        if (holder == PassportIndex.NO_ID && batch != null) {
+            for (Worker staged : batch.staged) {
+                if (staged.getID() != worker.getID() && passportID.equals(staged.getPerson().getPassportID())) holder = staged.getID();
+            }
+        }
+        if (holder != PassportIndex.NO_ID) throw new PassportTakenException(passportID, holder);
     }
 
     /**
-     * Clear all id of elements in collection
+     * Builds the {@link PassportIndex} if it was not built yet, reading the passport IDs of the workers still in
+     * the snapshot without decoding them. The caller must hold the write lock.
+     *
+     * @throws UncheckedIOException if a record of the snapshot is damaged
      */
-    public void updateAllIDs() {
-        for (int i = 0; i < workersCollection.size(); i++) {
-            workersCollection.get(i).setID(i + 1);
+    private void buildPassports() {
+        if (passports.isBuilt()) return;
+        try {
+            passports.build(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Неверные данные в бинарном файле: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new UncheckedIOException("Неверные данные в бинарном файле: " + e.getMessage(), new IOException(e));
         }
     }
 
+    /**
+     * Starts a compaction of the journal into the snapshot file if the journal has grown too long.
+     */
+    private void compactIfNeeded() {
+        if (journal != null && journal.needsCompaction()) {
+            try {
+                materialize();
+            } catch (UncheckedIOException e) {
+                Console.err("журнал не сжат: " + e.getMessage());
+                return;
+            }
+            journal.compact(workersCollection.values());
+        }
+    }
+
+    /**
+     * Returns the number of workers in the collection, including the ones still in the snapshot.
+     *
+     * @return the number of workers.
+     */
+    private int size() {
+        return workersCollection.size() + (snapshot == null ? 0 : snapshot.pending());
+    }
+
+    /**
+     * Checks whether there is a worker with the given ID, without decoding it from the snapshot.
+     *
+     * @param id the ID of the worker.
+     * @return true if the ID is taken.
+     */
+    private boolean contains(int id) {
+        return workersCollection.contains(id) || (snapshot != null && snapshot.contains(id));
+    }
+
+    /**
+     * Materializes the snapshot for a command that only reads the collection. The read lock cannot be upgraded,
+     * so the write lock is taken before the read lock and only while there is a snapshot to decode: until then
+     * the read-only commands are serialized like the commands that change the collection.
+     */
+    private void materializeShared() {
+        if (snapshot == null) return;
+        lock.writeLock().lock();
+        try {
+            materialize();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Decodes all workers still in the snapshot and detaches it. The caller must hold the write lock. The workers of the snapshot keep their order
+     * and come before the workers added since it was opened, as if the snapshot had been loaded eagerly.
+     * The collection is changed only after the whole snapshot has been decoded: if a record is damaged, the snapshot
+     * stays attached and the command fails, so nothing is saved or compacted without the workers that follow it.
+     *
+     * @throws UncheckedIOException if a record of the snapshot is damaged
+     */
+    private void materialize() {
+        if (snapshot == null) return;
+        ArrayList<Worker> ordered = new ArrayList<>(size());
+        BitSet updated = new BitSet();
+        try {
+            snapshot.walk((id, worker) -> {
+                if (worker == null) {
+                    worker = workersCollection.get(id);
+                    if (worker != null) updated.set(id);
+                }
+                if (worker != null) ordered.add(worker);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Неверные данные в бинарном файле: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new UncheckedIOException("Неверные данные в бинарном файле: " + e.getMessage(), new IOException(e));
+        }
+        snapshot = null;
+        for (Worker worker : workersCollection.values()) {
+            if (!updated.get(worker.getID())) ordered.add(worker);
+        }
+        workersCollection.clear();
+        for (Worker worker : ordered) {
+            workersCollection.put(worker);
+        }
+    }
+
+    /**
+     * A walk over the records of a snapshot.
+     */
+    private interface SnapshotScan {
+        void run(LazySnapshot snapshot) throws IOException;
+    }
+
+    /**
+     * The open batch of one session: the staged workers, whether the prompts were printed before the batch, whether
+     * a staged worker was invalid and the ID counter before the batch.
+     */
+    private static final class Batch {
+        final ArrayList<Worker> staged = new ArrayList<>();
+        final boolean wasQuiet;
+        final int idCounter;
+        boolean failed;
+
+        Batch(boolean wasQuiet, int idCounter) {
+            this.wasQuiet = wasQuiet;
+            this.idCounter = idCounter;
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/**
+ * The CollectionServer class lets many clients use one collection over TCP. Every accepted connection is served
+ * by a {@link Session} on its own thread, and all sessions share the thread-safe CollectionControl. On a JDK with
+ * virtual threads the sessions run on virtual threads, so thousands of idle clients cost no platform threads;
+ * on older JDKs every session takes a platform thread from a cached pool.
+ * <p>
+ * The clients are not authenticated, so the server listens on the loopback address unless another address is
+ * given, and the sessions get no commands that touch the files of the server.
+ */
+package support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CollectionServer implements Closeable {
+    public static final int DEFAULT_PORT = 4040;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final CollectionControl collectionControl;
+
+    /**
+     * Opens the server socket on the given port of the given address.
+     *
+     * @param address           the address to listen on, usually {@link InetAddress#getLoopbackAddress()}
+     * @param port              the port, or 0 to take any free port
+     * @param collectionControl the collection to serve
+     * @throws IOException if the port cannot be opened
+     */
+    public CollectionServer(InetAddress address, int port, CollectionControl collectionControl) throws IOException {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(new InetSocketAddress(address, port), 1024);
+        this.sessions = sessionExecutor();
+        this.collectionControl = collectionControl;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts clients until the server is closed.
+     */
+    public void serve() {
+        Console.writeln("Сервер коллекции слушает " + serverSocket.getInetAddress().getHostAddress() + ":" + getPort());
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                sessions.execute(new Session(socket, collectionControl));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) Console.err("не удалось принять клиента: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops accepting clients. The sessions that are already running are served to the end.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdown();
+    }
+
+    /**
+     * Creates the executor of the sessions: a virtual thread per session if the JDK has them, a cached pool of
+     * platform threads otherwise. The virtual one is looked up reflectively, so the code still builds for JDK 17.
+     *
+     * @return the executor
+     */
+    static ExecutorService sessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/**
+ * The ColumnarWorkerStore class is a storage engine that keeps every field of the workers in its own primitive
+ * array instead of keeping Worker objects: the coordinates, heights and the location in int, long and float
+ * columns, the salary in a double column, the position and status as byte ordinals, the creation date as epoch
+ * seconds, nanoseconds and the index of its zone, and the birthday as an epoch day. The name, the passport ID and
+ * the name of the location are dictionary encoded. A worker is six objects on the heap, a row here is about ninety
+ * bytes in the arrays, and a worker built back from a row is equal to the one that was put, creation date included.
+ *
+ * <p>Worker objects are built from a row only when a command returns or prints them. The status queries scan
+ * the columns directly and counting allocates nothing. The salaries are also kept in a {@link SalaryIndex}, which
+ * is made of primitive arrays as well and is updated on every change, so the minimum, a range and a percentile
+ * are found in O(log n) plus the size of the result, as in {@link MapWorkerStore}.</p>
+ *
+ * <p>Rows are kept in collection order. A removed row is marked empty and the columns are compacted once half
+ * of the rows are empty. The row of an ID is found through an {@link IntIntMap}.</p>
+ */
+package support;
+
+import data.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class ColumnarWorkerStore implements WorkerStore {
+    private static final int REMOVED = Integer.MIN_VALUE;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final Position[] POSITIONS = Position.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private int[] id = new int[16];
+    private int[] name = new int[16];
+    private int[] x = new int[16];
+    private int[] y = new int[16];
+    private long[] creationSecond = new long[16];
+    private int[] creationNano = new int[16];
+    private int[] creationZone = new int[16];
+    private double[] salary = new double[16];
+    private byte[] position = new byte[16];
+    private byte[] status = new byte[16];
+    private long[] birthday = new long[16];
+    private long[] height = new long[16];
+    private int[] passportID = new int[16];
+    private float[] locationX = new float[16];
+    private long[] locationY = new long[16];
+    private int[] locationZ = new int[16];
+    private int[] locationName = new int[16];
+
+    private final StringDictionary strings = new StringDictionary();
+    private final ArrayList<ZoneId> zones = new ArrayList<>();
+    private final SalaryIndex salaryIndex = new SalaryIndex();
+    private final IntIntMap rows = new IntIntMap();
+    private int used;
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return rows.containsKey(id);
+    }
+
+    @Override
+    public Worker get(int id) {
+        int row = rows.get(id, -1);
+        return row < 0 ? null : worker(row);
+    }
+
+    @Override
+    public void put(Worker worker) {
+        int row = rows.get(worker.getID(), -1);
+        if (row < 0) {
+            if (used == id.length) grow(id.length * 2);
+            row = used++;
+            rows.put(worker.getID(), row);
+        } else {
+            salaryIndex.remove(salary[row], id[row]);
+        }
+        id[row] = worker.getID();
+        name[row] = strings.encode(worker.getName());
+        x[row] = worker.getCoordinates().getX();
+        y[row] = worker.getCoordinates().getY();
+        ZonedDateTime created = worker.getCreationDate();
+        creationSecond[row] = created.toEpochSecond();
+        creationNano[row] = created.getNano();
+        creationZone[row] = zone(created.getZone());
+        salary[row] = worker.getSalary();
+        salaryIndex.add(salary[row], id[row]);
+        position[row] = (byte) worker.getPosition().ordinal();
+        status[row] = (byte) worker.getStatus().ordinal();
+        Person person = worker.getPerson();
+        birthday[row] = person.getBirthday() == null ? NO_DATE : person.getBirthday().toLocalDate().toEpochDay();
+        height[row] = person.getHeight();
+        passportID[row] = strings.encode(person.getPassportID());
+        Location location = person.getLocation();
+        locationX[row] = location.getX();
+        locationY[row] = location.getY();
+        locationZ[row] = location.getZ();
+        locationName[row] = strings.encode(location.getName());
+    }
+
+    @Override
+    public Worker remove(int id) {
+        int row = rows.get(id, -1);
+        if (row < 0) return null;
+        Worker worker = worker(row);
+        rows.remove(id);
+        salaryIndex.remove(salary[row], id);
+        this.id[row] = REMOVED;
+        if (used > 16 && rows.size() * 2 < used) compact();
+        return worker;
+    }
+
+    /**
+     * Marks the rows of the workers as removed without building the workers, and compacts the columns once at the end.
+     *
+     * @param ids the IDs of the workers, all of them in the store
+     */
+    @Override
+    public void removeAll(int[] ids) {
+        for (int id : ids) {
+            int row = rows.get(id, -1);
+            if (row < 0) continue;
+            rows.remove(id);
+            salaryIndex.remove(salary[row], id);
+            this.id[row] = REMOVED;
+        }
+        if (used > 16 && rows.size() * 2 < used) compact();
+    }
+
+    @Override
+    public void clear() {
+        rows.clear();
+        strings.clear();
+        zones.clear();
+        salaryIndex.clear();
+        used = 0;
+        grow(16);
+    }
+
+    @Override
+    public Collection<Worker> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Worker> iterator() {
+                return new Iterator<>() {
+                    private int row = nextRow(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return row < used;
+                    }
+
+                    @Override
+                    public Worker next() {
+                        if (row >= used) throw new NoSuchElementException();
+                        Worker worker = worker(row);
+                        row = nextRow(row + 1);
+                        return worker;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return rows.size();
+            }
+        };
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        byte ordinal = (byte) status.ordinal();
+        int count = 0;
+        for (int row = 0; row < used; row++) {
+            if (this.status[row] == ordinal && id[row] != REMOVED) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public ArrayList<Worker> greaterThanStatus(Status status) {
+        ArrayList<Worker> workers = new ArrayList<>();
+        for (int ordinal = status.ordinal() + 1; ordinal < STATUSES.length; ordinal++) {
+            for (int row = 0; row < used; row++) {
+                if (this.status[row] == ordinal && id[row] != REMOVED) workers.add(worker(row));
+            }
+        }
+        return workers;
+    }
+
+    @Override
+    public double minSalary() {
+        return salaryIndex.minSalary();
+    }
+
+    @Override
+    public ArrayList<Worker> salaryRange(double from, double to) {
+        int[] ids = salaryIndex.range(from, to);
+        ArrayList<Worker> workers = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            workers.add(get(id));
+        }
+        return workers;
+    }
+
+    @Override
+    public Worker salaryPercentile(double percentile) {
+        int id = salaryIndex.percentile(percentile);
+        return id < 0 ? null : get(id);
+    }
+
+    /**
+     * Builds a Worker object from the row.
+     */
+    private Worker worker(int row) {
+        LocalDateTime birthdayDate = birthday[row] == NO_DATE ? null : DateCodec.ofEpochDay(birthday[row]);
+        Location location = new Location(locationX[row], locationY[row], locationZ[row], strings.decode(locationName[row]));
+        Person person = new Person(birthdayDate, height[row], strings.decode(passportID[row]), location);
+        ZonedDateTime created = ZonedDateTime.ofInstant(Instant.ofEpochSecond(creationSecond[row], creationNano[row]), zones.get(creationZone[row]));
+        return new Worker(id[row], strings.decode(name[row]), new Coordinates(x[row], y[row]), created,
+                salary[row], POSITIONS[position[row]], STATUSES[status[row]], person);
+    }
+
+    /**
+     * Returns the index of the zone in the list of zones, adding it if it is new. The workers of a collection
+     * are created in one or a few zones, so the list stays short.
+     */
+    private int zone(ZoneId zone) {
+        int index = zones.indexOf(zone);
+        if (index >= 0) return index;
+        zones.add(zone);
+        return zones.size() - 1;
+    }
+
+    /**
+     * Returns the first row starting from the given one that is not removed.
+     */
+    private int nextRow(int row) {
+        while (row < used && id[row] == REMOVED) row++;
+        return row;
+    }
+
+    /**
+     * Moves the rows that are not removed to the start of the columns, keeping their order.
+     */
+    private void compact() {
+        int target = 0;
+        for (int row = 0; row < used; row++) {
+            if (id[row] == REMOVED) continue;
+            if (target != row) {
+                id[target] = id[row];
+                name[target] = name[row];
+                x[target] = x[row];
+                y[target] = y[row];
+                creationSecond[target] = creationSecond[row];
+                creationNano[target] = creationNano[row];
+                creationZone[target] = creationZone[row];
+                salary[target] = salary[row];
+                position[target] = position[row];
+                status[target] = status[row];
+                birthday[target] = birthday[row];
+                height[target] = height[row];
+                passportID[target] = passportID[row];
+                locationX[target] = locationX[row];
+                locationY[target] = locationY[row];
+                locationZ[target] = locationZ[row];
+                locationName[target] = locationName[row];
+                rows.put(id[target], target);
+            }
+            target++;
+        }
+        used = target;
+    }
+
+    /**
+     * Resizes all columns to the given capacity.
+     */
+    private void grow(int capacity) {
+        id = Arrays.copyOf(id, capacity);
+        name = Arrays.copyOf(name, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        creationSecond = Arrays.copyOf(creationSecond, capacity);
+        creationNano = Arrays.copyOf(creationNano, capacity);
+        creationZone = Arrays.copyOf(creationZone, capacity);
+        salary = Arrays.copyOf(salary, capacity);
+        position = Arrays.copyOf(position, capacity);
+        status = Arrays.copyOf(status, capacity);
+        birthday = Arrays.copyOf(birthday, capacity);
+        height = Arrays.copyOf(height, capacity);
+        passportID = Arrays.copyOf(passportID, capacity);
+        locationX = Arrays.copyOf(locationX, capacity);
+        locationY = Arrays.copyOf(locationY, capacity);
+        locationZ = Arrays.copyOf(locationZ, capacity);
+        locationName = Arrays.copyOf(locationName, capacity);
+    }
+}
@@ -1,62 +1,95 @@
 /**
  * The {@code CommandControl} class is responsible for mapping commands and storing them in a HashMap for easy access.
  * It also provides a reference to the {@code CollectionControl} object that manages the collection.
+ *
+ * <p>Input lines are dispatched through a table built once in the constructor: an open-addressing hash table keyed
+ * by the lower-case command names. The name is hashed and compared directly in the input line, ignoring the case,
+ * so finding a command takes one probe on average and allocates nothing.</p>
  */
 package support;
 
-import commands.Command;
+import commands.*;
+import exceptions.InputException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 
 public class CommandControl {
     private final HashMap<String, Command> commandMapping = new HashMap<>();
+    private final String[] keys;
+    private final Command[] commands;
+    private final int mask;
 
     /**
      * Constructs a {@code CommandControl} object with the given commands and {@code CollectionControl} object.
+     * Every command is registered under its name.
      *
-     * @param addElement          the {@code Command} object for adding a new element to the collection
-     * @param addElementIfMin     the {@code Command} object for adding a new element to the collection if its salary is less than the minimum salary of all elements in the collection
-     * @param clear               the {@code Command} object for clearing the collection
-     * @param executeScript       the {@code Command} object for executing a script file
-     * @param exit                the {@code Command} object for exiting the program
-     * @param filterGreaterStatus the {@code Command} object for filtering the collection by status greater than a given status
-     * @param groupByStatus       the {@code Command} object for grouping the collection by status
-     * @param help                the {@code Command} object for displaying help information
-     * @param info                the {@code Command} object for displaying information about the collection
-     * @param printFieldOfPerson  the {@code Command} object for printing the value of the person field of all elements in the collection
-     * @param removeElementByID   the {@code Command} object for removing an element from the collection by ID
-     * @param removeGreater       the {@code Command} object for removing all elements from the collection greater than a given element
-     * @param saveCollection      the {@code Command} object for saving the collection to a file
-     * @param show                the {@code Command} object for displaying all elements in the collection
-     * @param sort                the {@code Command} object for sorting the collection by salary
-     * @param updateByID          the {@code Command} object for updating an element in the collection by ID
-     * @param collectionControl   the {@code CollectionControl} object that manages the collection
+     * @param collectionControl the {@code CollectionControl} object that manages the collection
+     * @param commands          the {@code Command} objects available to the user
      */
 
-    public CommandControl(Command addElement, Command addElementIfMin, Command clear,
-                          Command executeScript, Command exit, Command filterGreaterStatus,
-                          Command groupByStatus, Command help, Command info, Command printFieldOfPerson,
-                          Command removeElementByID, Command removeGreater,
-                          Command saveCollection, Command show, Command sort, Command updateByID, CollectionControl collectionControl) {
-        commandMapping.put(addElement.getName(), addElement);
-        commandMapping.put(addElementIfMin.getName(), addElementIfMin);
-        commandMapping.put(clear.getName(), clear);
-        commandMapping.put(executeScript.getName(), executeScript);
-        commandMapping.put(exit.getName(), exit);
-        commandMapping.put(filterGreaterStatus.getName(), filterGreaterStatus);
-        commandMapping.put(groupByStatus.getName(), groupByStatus);
-        commandMapping.put(help.getName(), help);
-        commandMapping.put(info.getName(), info);
-        commandMapping.put(printFieldOfPerson.getName(), printFieldOfPerson);
-        commandMapping.put(removeElementByID.getName(), removeElementByID);
-        commandMapping.put(removeGreater.getName(), removeGreater);
-        commandMapping.put(show.getName(), show);
-        commandMapping.put(sort.getName(), sort);
-        commandMapping.put(updateByID.getName(), updateByID);
-        commandMapping.put(saveCollection.getName(), saveCollection);
+    public CommandControl(CollectionControl collectionControl, Command... commands) {
+        int capacity = Integer.highestOneBit(Math.max(1, commands.length) * 4);
+        this.keys = new String[capacity];
+        this.commands = new Command[capacity];
+        this.mask = capacity - 1;
+        for (Command command : commands) {
+            commandMapping.put(command.getName(), command);
+            register(command);
+        }
         collectionControl.getMappingOfCommands(commandMapping);
     }
 
+    /**
+     * Creates a CommandControl with the full set of commands of the application. The commands read their input
+     * from the given CommunicationControl, so every session of the collection gets its own set.
+     *
+     * @param fileControl          the FileControl of the application
+     * @param collectionControl    the shared collection
+     * @param communicationControl the input of the session
+     * @param exit                 what the exit command does after saying goodbye
+     * @return the CommandControl of the session
+     */
+    public static CommandControl create(FileControl fileControl, CollectionControl collectionControl,
+                                        CommunicationControl communicationControl, Runnable exit) {
+        return create(fileControl, collectionControl, communicationControl, exit, true);
+    }
+
+    /**
+     * Creates a CommandControl for a session of a network client. It has every command except the ones that read
+     * or write files of the server, execute_script and save, so a client cannot reach the file system.
+     *
+     * @param collectionControl    the shared collection
+     * @param communicationControl the input of the session
+     * @param exit                 what the exit command does after saying goodbye
+     * @return the CommandControl of the session
+     */
+    public static CommandControl createRemote(CollectionControl collectionControl, CommunicationControl communicationControl, Runnable exit) {
+        return create(null, collectionControl, communicationControl, exit, false);
+    }
+
+    private static CommandControl create(FileControl fileControl, CollectionControl collectionControl,
+                                         CommunicationControl communicationControl, Runnable exit, boolean files) {
+        ArrayList<Command> commands = new ArrayList<>(List.of(new AddElement(communicationControl, collectionControl),
+                new AddElementIfMin(collectionControl, communicationControl),
+                new BeginBatch(collectionControl, communicationControl), new CommitBatch(collectionControl, communicationControl),
+                new Clear(collectionControl, communicationControl), new Exit(exit), new FilterGreaterStatus(collectionControl, communicationControl),
+                new FilterBySalary(collectionControl), new FindByPassport(collectionControl), new GroupByStatus(collectionControl), new Help(collectionControl), new Info(collectionControl),
+                new PrintFieldOfPerson(collectionControl), new RemoveElementByID(collectionControl, communicationControl),
+                new RemoveGreater(collectionControl, communicationControl), new SalaryPercentile(collectionControl),
+                new Show(collectionControl), new ShowView(collectionControl), new Sort(collectionControl),
+                new UpdateByID(collectionControl, communicationControl)));
+        if (files) {
+            commands.add(new ExecuteScript(collectionControl, communicationControl));
+            commands.add(new SaveCollection(fileControl, collectionControl));
+        }
+        CommandControl commandControl = new CommandControl(collectionControl, commands.toArray(new Command[0]));
+        communicationControl.setCommandControl(commandControl);
+        return commandControl;
+    }
+
     /**
      * Returns the mapping of command names to Command objects in this CommandControl.
      *
@@ -66,4 +99,89 @@ public class CommandControl {
         return commandMapping;
     }
 
+    /**
+     * Finds the command with the given name, ignoring the case.
+     *
+     * @param name the name of the command
+     * @return the command, or null if there is no command with such name
+     */
+    public Command find(String name) {
+        return find(name, 0, name.length());
+    }
+
+    /**
+     * Finds the command whose name is the given part of the line, ignoring the case.
+     *
+     * @param line  the line that contains the name
+     * @param start the index of the first character of the name
+     * @param end   the index after the last character of the name
+     * @return the command, or null if there is no command with such name
+     */
+    public Command find(CharSequence line, int start, int end) {
+        for (int slot = hash(line, start, end) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (matches(keys[slot], line, start, end)) return commands[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Runs the command of the given line. The first word of the line is the name of the command,
+     * the rest of the line without the surrounding spaces is its argument.
+     *
+     * @param line the trimmed input line
+     * @throws InputException if there is no command with such name
+     */
+    public void execute(String line) throws InputException {
+        int end = nameEnd(line);
+        Command command = find(line, 0, end);
+        if (command == null) throw new InputException();
+        command.execute(argumentOf(line, end));
+    }
+
+    /**
+     * Returns the index after the name of the command in the line, that is the index of the first space.
+     *
+     * @param line the trimmed input line
+     * @return the end of the name
+     */
+    public static int nameEnd(String line) {
+        int end = line.indexOf(' ');
+        return end < 0 ? line.length() : end;
+    }
+
+    /**
+     * Returns the argument of the command in the line: the rest of the line after the name,
+     * without the surrounding spaces.
+     *
+     * @param line    the trimmed input line
+     * @param nameEnd the end of the name returned by {@link #nameEnd(String)}
+     * @return the argument, or an empty string if there is none
+     */
+    public static String argumentOf(String line, int nameEnd) {
+        return nameEnd >= line.length() ? "" : line.substring(nameEnd + 1).trim();
+    }
+
+    private void register(Command command) {
+        String key = command.getName().toLowerCase(Locale.ROOT);
+        int slot = hash(key, 0, key.length()) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) slot = (slot + 1) & mask;
+        keys[slot] = key;
+        commands[slot] = command;
+    }
+
+    private static int hash(CharSequence line, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(line.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence line, int start, int end) {
+        if (key.length() != end - start) return false;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != Character.toLowerCase(line.charAt(start + i))) return false;
+        }
+        return true;
+    }
 }
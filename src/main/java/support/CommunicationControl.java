@@ -9,20 +9,21 @@ import exceptions.EmptyInputException;
 import exceptions.InputException;
 import exceptions.WrongArgumentsException;
 
-import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 
 
 public class CommunicationControl {
     public Scanner scanner;
+    private final LineSource console;
+    private LineSource input;
+    private CommandControl commandControl;
     private boolean loop = true;
-    private static boolean flagForScr = false;
+    private boolean quiet = false;
+    private boolean flagForScr = false;
 
     /**
      * Constructs a new CommunicationControl object with the given scanner.
@@ -31,7 +32,39 @@ public class CommunicationControl {
      */
 
     public CommunicationControl(Scanner scanner) {
+        this(scanner, scanner::nextLine);
+    }
+
+    /**
+     * Constructs a new CommunicationControl object that reads the answers to its prompts from the given source,
+     * for example the socket of a network session.
+     *
+     * @param scanner the scanner the source reads from
+     * @param console the source of the input lines while no script is running
+     */
+    public CommunicationControl(Scanner scanner, LineSource console) {
         this.scanner = scanner;
+        this.console = console;
+        this.input = console;
+    }
+
+    /**
+     * Sets the CommandControl that runs the commands typed into this input, so scripts started from it
+     * are run by the same commands.
+     *
+     * @param commandControl the CommandControl of the session
+     */
+    public void setCommandControl(CommandControl commandControl) {
+        this.commandControl = commandControl;
+    }
+
+    /**
+     * Returns the CommandControl that runs the commands typed into this input.
+     *
+     * @return the CommandControl of the session
+     */
+    public CommandControl getCommandControl() {
+        return commandControl;
     }
 
 
@@ -43,11 +76,7 @@ public class CommunicationControl {
      * @return true if the string contains only digits or letters, false otherwise
      */
     public static boolean containsOnlyDigitsOrLetters(String str, boolean onlyDigits) {
-        if (str == null || str.isEmpty()) {
-            return false;
-        }
-        String regex = onlyDigits ? "^\\d+$" : "^[a-zA-Z]+$";
-        return str.matches(regex);
+        return onlyDigits ? Validators.isDigits(str) : Validators.isValidName(str);
     }
 
     /**
@@ -58,12 +87,56 @@ public class CommunicationControl {
     }
 
     /**
-     * Changes the scanner object to read input from the given input stream.
+     * Sets the loop flag. While it is set, a prompt asks again after an invalid answer; while it is not,
+     * as in a script, the invalid answer fails the command.
+     *
+     * @param loop true to ask again after invalid answers
+     */
+    public void setLoop(boolean loop) {
+        this.loop = loop;
+    }
+
+    /**
+     * Checks whether a prompt asks again after an invalid answer.
+     *
+     * @return the loop flag
+     */
+    public boolean isLoop() {
+        return loop;
+    }
+
+    /**
+     * Turns the prompts on or off. Error messages are printed in both cases.
      *
-     * @param inputStream the input stream to be used for reading input from the console
+     * @param quiet true to stop printing the prompts
      */
-    public void changeScanner(InputStream inputStream) {
-        this.scanner = new Scanner(inputStream);
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Checks whether the prompts are turned off.
+     *
+     * @return true if the prompts are not printed
+     */
+    public boolean isQuiet() {
+        return quiet;
+    }
+
+    /**
+     * Reads the answers to the prompts from the given source instead of the console.
+     *
+     * @param source the source of the input lines, for example the data lines of a script
+     */
+    public void changeSource(LineSource source) {
+        this.input = source;
+    }
+
+    /**
+     * Reads the answers to the prompts from the console again.
+     */
+    public void restoreConsole() {
+        this.input = console;
     }
 
 
@@ -77,11 +150,11 @@ public class CommunicationControl {
         String name;
         while (true) {
             try {
-                Console.writeln("введите имя");
-                name = scanner.nextLine().trim();
+                prompt("введите имя");
+                name = input.nextLine().trim();
                 if (name.equals("")) throw new EmptyInputException("имя не может быть пустым");
-                if (!containsOnlyDigitsOrLetters(name, false)) throw new InputException();
-                System.out.println(name);
+                if (!Validators.isValidName(name)) throw new InputException();
+                prompt(name);
                 flagForScr = true;
                 return name;
             } catch (EmptyInputException | InputException e) {
@@ -107,16 +180,16 @@ public class CommunicationControl {
     private long setHeight() throws InputException {
         while (true) {
             try {
-                System.out.print("Введите рост: ");
-                String line = scanner.nextLine();
+                promptInline("Введите рост: ");
+                String line = input.nextLine();
                 long height = Long.parseLong(line);
-                if ((height <= 0) || (height > 400)) {
+                if (!Validators.isValidHeight(height)) {
                     throw new WrongArgumentsException("Высота не может быть меньше или равна нулю");
                 }
                 flagForScr = true;
                 return height;
             } catch (Exception e) {
-                System.out.println("Некорректный ввод. Попробуйте еще раз.");
+                Console.writeln("Некорректный ввод. Попробуйте еще раз.");
             } finally {
                 if ((!loop) && (!flagForScr)) {
                     throw new InputException();
@@ -137,18 +210,18 @@ public class CommunicationControl {
     private String setPassportID() throws InputException {
         while (true) {
             try {
-                System.out.print("Введите номер паспорта: ");
-                String passportID = scanner.nextLine().trim();
+                promptInline("Введите номер паспорта: ");
+                String passportID = input.nextLine().trim();
                 if (passportID.isEmpty()) {
                     throw new EmptyInputException("Номер паспорта не может быть пустым");
                 }
-                if ((!passportID.matches("\\d+") || (passportID.length() != 6))) {
+                if (!Validators.isValidPassportID(passportID)) {
                     throw new WrongArgumentsException("Номер паспорта должен содержать только цифры(6 цифр)");
                 }
                 flagForScr = true;
                 return passportID;
             } catch (Exception e) {
-                System.out.println("Некорректный ввод. Попробуйте еще раз.");
+                Console.writeln("Некорректный ввод. Попробуйте еще раз.");
             } finally {
                 if ((!loop) && (!flagForScr)) {
                     throw new InputException();
@@ -169,11 +242,10 @@ public class CommunicationControl {
     private LocalDateTime setBirthday() throws InputException {
         while (true) {
             try {
-                System.out.print("Введите дату рождения в формате ГГГГ-ММ-ДД: ");
-                String birthdayStr = scanner.nextLine().trim();
+                promptInline("Введите дату рождения в формате ГГГГ-ММ-ДД: ");
+                String birthdayStr = input.nextLine().trim();
                 if (birthdayStr.isEmpty()) throw new IllegalArgumentException();
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd", new Locale("ru", "Ru"));
-                LocalDateTime bd = LocalDate.parse(birthdayStr, formatter).atStartOfDay();
+                LocalDateTime bd = DateCodec.parse(birthdayStr);
                 if (bd.isAfter(LocalDate.now().atStartOfDay())) throw new WrongArgumentsException();
                 flagForScr = true;
                 return bd;
@@ -182,7 +254,7 @@ public class CommunicationControl {
             } catch (DateTimeParseException e) {
                 Console.err("неверный формат даты!");
             } catch (Exception e) {
-                System.out.println("Некорректный ввод. Попробуйте еще раз.");
+                Console.writeln("Некорректный ввод. Попробуйте еще раз.");
             } finally {
                 if ((!loop) && (!flagForScr)) {
                     throw new InputException();
@@ -222,11 +294,11 @@ public class CommunicationControl {
         String line;
         while (true) {
             try {
-                Console.writeln("Введите координату X: ");
-                line = scanner.nextLine().trim();
+                prompt("Введите координату X: ");
+                line = input.nextLine().trim();
                 if (line.equals("")) throw new EmptyInputException("не может быть пустым");
                 coordX = Integer.parseInt(line);
-                if (coordX > 468) throw new InputException();
+                if (!Validators.isValidX(coordX)) throw new InputException();
                 flagForScr = true;
                 return coordX;
             } catch (EmptyInputException e) {
@@ -258,11 +330,11 @@ public class CommunicationControl {
         String line;
         while (true) {
             try {
-                Console.writeln("Введите координату Y: ");
-                line = scanner.nextLine().trim();
+                prompt("Введите координату Y: ");
+                line = input.nextLine().trim();
                 if (line.equals("")) throw new EmptyInputException();
                 coordY = Integer.parseInt(line);
-                if (coordY <= -922) throw new InputException();
+                if (!Validators.isValidY(coordY)) throw new InputException();
                 flagForScr = true;
                 return coordY;
             } catch (EmptyInputException e) {
@@ -292,11 +364,11 @@ public class CommunicationControl {
         double salary;
         while (true) {
             try {
-                Console.writeln("введите з/п: ");
-                line = scanner.nextLine().trim();
+                prompt("введите з/п: ");
+                line = input.nextLine().trim();
                 if (line.equals("")) throw new EmptyInputException();
                 salary = Double.parseDouble(line);
-                if (salary <= 0) throw new InputException();
+                if (!Validators.isValidSalary(salary)) throw new InputException();
                 flagForScr = true;
                 return salary;
             } catch (EmptyInputException e) {
@@ -353,23 +425,23 @@ public class CommunicationControl {
         while (true) {
             try {
 
-                Console.writeln("Введите координаты x (Float)");
-                line = scanner.nextLine().trim();
+                prompt("Введите координаты x (Float)");
+                line = input.nextLine().trim();
                 if (line.equals("")) throw new EmptyInputException();
                 x = Float.parseFloat(line);
 
-                Console.writeln("Введите координаты y (Long)");
-                line = scanner.nextLine().trim();
+                prompt("Введите координаты y (Long)");
+                line = input.nextLine().trim();
                 if (line.equals("")) throw new EmptyInputException();
                 y = Long.parseLong(line);
 
-                Console.writeln("Введите координаты z (Integer)");
-                line = scanner.nextLine().trim();
+                prompt("Введите координаты z (Integer)");
+                line = input.nextLine().trim();
                 if (line.equals("")) throw new EmptyInputException();
                 z = Integer.parseInt(line);
 
-                Console.writeln("Название локации: ");
-                name = scanner.nextLine().trim();
+                prompt("Название локации: ");
+                name = input.nextLine().trim();
                 if (name.equals("")) throw new EmptyInputException();
                 flagForScr = true;
                 return new Location(x, y, z, name);
@@ -399,9 +471,9 @@ public class CommunicationControl {
         while (true) {
             try {
 
-                Console.writeln(Position.nameList());
-                Console.writeln("выбирайте");
-                setPos = scanner.nextLine().trim();
+                prompt(Position.nameList());
+                prompt("выбирайте");
+                setPos = input.nextLine().trim();
                 position = Position.valueOf(setPos.toUpperCase());
                 flagForScr = true;
                 return position;
@@ -432,9 +504,9 @@ public class CommunicationControl {
         while (true) {
             try {
 
-                Console.writeln(Status.nameList());
-                Console.writeln("какую штуку выберите");
-                setStat = scanner.nextLine().trim();
+                prompt(Status.nameList());
+                prompt("какую штуку выберите");
+                setStat = input.nextLine().trim();
                 status = Status.valueOf(setStat.toUpperCase());
                 flagForScr = true;
                 return status;
@@ -461,7 +533,7 @@ public class CommunicationControl {
         if (loop) {
             String line;
             Console.writeln("y/n");
-            line = scanner.nextLine().trim();
+            line = input.nextLine().trim();
             return line.equals("y");
         } else {
             return true;
@@ -476,7 +548,25 @@ public class CommunicationControl {
      */
     public String setEnotherInfo() {
         String line;
-        line = scanner.nextLine().trim();
+        line = input.nextLine().trim();
         return line;
     }
+
+    /**
+     * Prints a prompt on its own line, unless the prompts are turned off.
+     *
+     * @param text the prompt
+     */
+    private void prompt(Object text) {
+        if (!quiet) Console.writeln(text);
+    }
+
+    /**
+     * Prints a prompt without a line break, unless the prompts are turned off.
+     *
+     * @param text the prompt
+     */
+    private void promptInline(Object text) {
+        if (!quiet) Console.write(text);
+    }
 }
@@ -1,18 +1,21 @@
 /**
  * A class that represents a console for interacting with the program. It handles user input, executes commands, and
- * outputs messages to the console.
+ * outputs messages to the console. A thread that serves a network session sends the messages to its client instead,
+ * see {@link #setOutput(PrintStream)}.
  */
 package support;
 
 import commands.Command;
 import data.Worker;
-import exceptions.EmptyInputException;
 import exceptions.InputException;
 
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.List;
 import java.util.Scanner;
 
 public class Console {
+    private static final ThreadLocal<PrintStream> OUTPUT = new ThreadLocal<>();
     private final Scanner scanner;
     private FileControl fileControl;
     private CollectionControl collectionControl;
@@ -36,32 +39,62 @@ public class Console {
     }
 
     /**
-     * Starts an interactive session with the user. Reads user input, executes commands, and outputs messages to the console.
+     * Starts an interactive session with the user. Loads the collection and replays its journal, then reads user input,
+     * executes commands, and outputs messages to the console. A command that fails with an unexpected error is
+     * reported and the next command is read.
      */
     public void interactive() {
-        String[] userCommand;
-        List<Worker> setWorkerList = fileControl.readXmlFile();
-        if (setWorkerList != null) {
-            for (Worker worker : setWorkerList) {
-                collectionControl.addToCollection(worker);
-            }
-        }
-
-
+        open();
         while (true) {
+            Console.write(">>");
+            String line = scanner.nextLine();
             try {
-                Console.write(">>");
-                userCommand = (scanner.nextLine().trim() + " ").split(" ", 2);
-                if (userCommand.length == 0) throw new EmptyInputException();
-                chooseCommand(userCommand).execute(userCommand[1]);
+                commandControl.execute(line.trim());
             } catch (InputException e) {
                 Console.err("Введенной команды не существет. Введите командочку help");
-            } catch (EmptyInputException e) {
-                Console.err(e.getMessage());
+            } catch (RuntimeException e) {
+                Console.err("команда прервана: " + e.getMessage());
             }
         }
     }
 
+    /**
+     * Loads the collection and replays its journal, so it can be served to the user or to the network sessions.
+     */
+    public void open() {
+        if (loadCollection()) {
+            Journal journal = fileControl.createJournal();
+            if (journal != null) {
+                try {
+                    journal.open(collectionControl);
+                    collectionControl.setJournal(journal);
+                } catch (IOException e) {
+                    Console.err("журнал недоступен, изменения не будут сохраняться автоматически");
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the collection from the file given on the command line. A binary snapshot is attached lazily,
+     * any other file is read completely; with the "--dedup" option the duplicates are dropped while it is read.
+     *
+     * @return true if the collection was loaded, false otherwise
+     */
+    private boolean loadCollection() {
+        LazySnapshot snapshot = fileControl.openLazySnapshot();
+        if (snapshot != null) {
+            collectionControl.attachSnapshot(snapshot);
+            return true;
+        }
+        List<Worker> setWorkerList = fileControl.readFile();
+        if (setWorkerList == null) return false;
+        for (Worker worker : setWorkerList) {
+            collectionControl.addToCollection(worker);
+        }
+        return true;
+    }
+
     /**
      * Searches for and returns the Command object corresponding to the user's input.
      *
@@ -71,14 +104,27 @@ public class Console {
      */
 
     public Command chooseCommand(String[] userCommand) throws InputException {
-        for (String key : commandControl.getMapping().keySet()) {
-            if (key.equalsIgnoreCase(userCommand[0])) {
-                return commandControl.getMapping().get(key);
-            }
-        }
-        throw new InputException();
+        Command command = commandControl.find(userCommand[0]);
+        if (command == null) throw new InputException();
+        return command;
+    }
+
+
+    /**
+     * Sends everything the current thread outputs through the Console to the given stream, error messages included.
+     *
+     * @param output the stream of the session served by the current thread
+     */
+    public static void setOutput(PrintStream output) {
+        OUTPUT.set(output);
     }
 
+    /**
+     * Sends the output of the current thread to the standard streams again.
+     */
+    public static void resetOutput() {
+        OUTPUT.remove();
+    }
 
     /**
      * Outputs the specified object to the console, without adding a newline character.
@@ -86,7 +132,8 @@ public class Console {
      * @param outPut the object to output to the console
      */
     public static void write(Object outPut) {
-        System.out.print(outPut);
+        PrintStream output = OUTPUT.get();
+        (output == null ? System.out : output).print(outPut);
     }
 
     /**
@@ -95,7 +142,20 @@ public class Console {
      * @param outPut the object to output to the console
      */
     public static void writeln(Object outPut) {
-        System.out.println(outPut);
+        PrintStream output = OUTPUT.get();
+        (output == null ? System.out : output).println(outPut);
+    }
+
+    /**
+     * Outputs a page of text with one write and flushes it, so a long listing is not written line by line.
+     *
+     * @param page the text of the page, lines included
+     */
+    public static void writePage(CharSequence page) {
+        PrintStream output = OUTPUT.get();
+        PrintStream stream = output == null ? System.out : output;
+        stream.append(page);
+        stream.flush();
     }
 
     /**
@@ -104,6 +164,7 @@ public class Console {
      * @param outPut the object to output to the console as an error message
      */
     public static void err(Object outPut) {
-        System.err.println("Error: " + outPut);
+        PrintStream output = OUTPUT.get();
+        (output == null ? System.err : output).println("Error: " + outPut);
     }
 }
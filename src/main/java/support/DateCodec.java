@@ -0,0 +1,101 @@
+/**
+ * The DateCodec class turns birthdays from text and from epoch days into LocalDateTime objects for every loader
+ * and prompt. A plain "yyyy-MM-dd" date is parsed by hand, digit by digit; anything else, such as a day past the end
+ * of the month, goes to the shared formatter, so the result is the same as with the formatter alone. The days
+ * of the last two centuries and the next one are kept once each: workers born on the same day share one object
+ * instead of building their own.
+ */
+package support;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+public final class DateCodec {
+    /**
+     * The format of the dates in the files and at the prompts.
+     */
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd", new Locale("ru", "Ru"));
+
+    private static final long FIRST_CACHED_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final long LAST_CACHED_DAY = LocalDate.of(2100, 12, 31).toEpochDay();
+    private static final LocalDateTime[] DAYS = new LocalDateTime[(int) (LAST_CACHED_DAY - FIRST_CACHED_DAY + 1)];
+
+    private DateCodec() {
+    }
+
+    /**
+     * Parses a date in the "yyyy-MM-dd" format and returns the start of that day.
+     *
+     * @param text the date
+     * @return the start of the day
+     * @throws DateTimeParseException if the text is not a date in this format
+     */
+    public static LocalDateTime parse(CharSequence text) {
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            if (year > 0 && month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)) {
+                return ofEpochDay(epochDay(year, month, day));
+            }
+        }
+        return LocalDate.parse(text, FORMATTER).atStartOfDay();
+    }
+
+    /**
+     * Returns the start of the day with the given number since 1970-01-01.
+     *
+     * @param epochDay the number of the day
+     * @return the start of the day
+     */
+    public static LocalDateTime ofEpochDay(long epochDay) {
+        if (epochDay < FIRST_CACHED_DAY || epochDay > LAST_CACHED_DAY) return LocalDate.ofEpochDay(epochDay).atStartOfDay();
+        // filled without a lock: the dates are immutable, so whoever sees a slot filled sees the whole object
+        int slot = (int) (epochDay - FIRST_CACHED_DAY);
+        LocalDateTime date = DAYS[slot];
+        if (date == null) {
+            date = LocalDate.ofEpochDay(epochDay).atStartOfDay();
+            DAYS[slot] = date;
+        }
+        return date;
+    }
+
+    /**
+     * Reads the decimal number in the given range of the text.
+     *
+     * @return the number, or -1 if a character is not a digit
+     */
+    private static int digits(CharSequence text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Counts the days from 1970-01-01 to the given date of the proleptic Gregorian calendar, the same way
+     * as {@link LocalDate#toEpochDay()} but without creating the LocalDate.
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * The DuplicateFilter class drops the workers of a file whose content has already been read, as the file is loaded.
+ * It remembers the {@link Fingerprint} of every worker it has let through, so a duplicate is recognized in constant
+ * time while the parser goes through the records and is never added to the loaded list, and the collection is
+ * not touched until loading is over.
+ * <p>
+ * The filter maps each fingerprint to the latest worker with it and each worker to the previous one with the same
+ * fingerprint, like {@link DuplicateIndex} does; a match is confirmed with equals. It keeps references only to the
+ * workers it has let through, which the loaded list holds anyway.
+ */
+package support;
+
+import data.Worker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DuplicateFilter {
+    private static final int NONE = -1;
+
+    private final ArrayList<Worker> kept = new ArrayList<>();
+    private final LongIntMap latest = new LongIntMap();
+    private final IntIntMap previous = new IntIntMap();
+    private int skipped;
+
+    /**
+     * Lets the worker through if no equal worker has been let through before.
+     *
+     * @param worker the worker just read, with any ID
+     * @return true if the worker is new, false if it is a duplicate and must be dropped
+     */
+    public boolean accept(Worker worker) {
+        long fingerprint = Fingerprint.of(worker);
+        int last = latest.get(fingerprint, NONE);
+        for (int index = last; index != NONE; index = previous.get(index, NONE)) {
+            if (worker.equals(kept.get(index))) {
+                skipped++;
+                return false;
+            }
+        }
+        int index = kept.size();
+        kept.add(worker);
+        if (last != NONE) previous.put(index, last);
+        latest.put(fingerprint, index);
+        return true;
+    }
+
+    /**
+     * Returns the workers of the list that are let through, in the order of the list.
+     *
+     * @param workers the workers read, in file order
+     * @return a new list without the duplicates
+     */
+    public List<Worker> accept(List<Worker> workers) {
+        ArrayList<Worker> accepted = new ArrayList<>(workers.size());
+        for (Worker worker : workers) {
+            if (accept(worker)) accepted.add(worker);
+        }
+        return accepted;
+    }
+
+    /**
+     * Returns the number of workers dropped so far.
+     *
+     * @return the number of duplicates
+     */
+    public int skipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * The DuplicateIndex class finds the worker of the collection with the same content as a given one in constant
+ * time. It wraps the storage engine like {@link SortedViews} does and passes every call through to it. The index
+ * is built the first time a duplicate is looked for and from then on every put and remove updates it, so a
+ * collection that never checks for duplicates pays nothing for it.
+ * <p>
+ * The index maps the {@link Fingerprint} of each worker to the ID of the latest worker with that fingerprint, and
+ * the ID of each worker to the ID of the previous one with the same fingerprint. The workers with one fingerprint
+ * are nearly always equal, so a lookup confirms the first of them with equals and stops.
+ */
+package support;
+
+import data.Status;
+import data.Worker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+public class DuplicateIndex implements WorkerStore {
+    private static final int NO_ID = -1;
+
+    private final WorkerStore store;
+    private final LongIntMap latest = new LongIntMap();
+    private final IntIntMap previous = new IntIntMap();
+    private boolean built;
+
+    /**
+     * Wraps the given store.
+     *
+     * @param store the store that keeps the workers
+     */
+    public DuplicateIndex(WorkerStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Returns a worker of the store that is equal to the given one, building the index if it was not built yet.
+     * Building must happen under the write lock of the collection.
+     *
+     * @param worker the worker to look for, with any ID
+     * @return the equal worker of the store, or null if there is none
+     */
+    public Worker find(Worker worker) {
+        if (!built) build();
+        for (int id = latest.get(Fingerprint.of(worker), NO_ID); id != NO_ID; id = previous.get(id, NO_ID)) {
+            Worker candidate = store.get(id);
+            if (worker.equals(candidate)) return candidate;
+        }
+        return null;
+    }
+
+    private void build() {
+        for (Worker worker : store.values()) {
+            link(worker);
+        }
+        built = true;
+    }
+
+    private void link(Worker worker) {
+        long fingerprint = Fingerprint.of(worker);
+        int last = latest.get(fingerprint, NO_ID);
+        if (last != NO_ID) previous.put(worker.getID(), last);
+        latest.put(fingerprint, worker.getID());
+    }
+
+    private void unlink(Worker worker) {
+        long fingerprint = Fingerprint.of(worker);
+        int id = worker.getID();
+        int before = previous.get(id, NO_ID);
+        previous.remove(id);
+        int next = latest.get(fingerprint, NO_ID);
+        if (next == id) {
+            if (before == NO_ID) latest.remove(fingerprint);
+            else latest.put(fingerprint, before);
+            return;
+        }
+        while (next != NO_ID) {
+            int current = previous.get(next, NO_ID);
+            if (current == id) {
+                if (before == NO_ID) previous.remove(next);
+                else previous.put(next, before);
+                return;
+            }
+            next = current;
+        }
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return store.contains(id);
+    }
+
+    @Override
+    public Worker get(int id) {
+        return store.get(id);
+    }
+
+    @Override
+    public void put(Worker worker) {
+        if (built) {
+            Worker replaced = store.get(worker.getID());
+            if (replaced != null) unlink(replaced);
+            link(worker);
+        }
+        store.put(worker);
+    }
+
+    @Override
+    public Worker remove(int id) {
+        Worker worker = store.remove(id);
+        if (built && worker != null) unlink(worker);
+        return worker;
+    }
+
+    @Override
+    public void removeAll(int[] ids) {
+        if (built) {
+            for (int id : ids) {
+                Worker worker = store.get(id);
+                if (worker != null) unlink(worker);
+            }
+        }
+        store.removeAll(ids);
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+        latest.clear();
+        previous.clear();
+    }
+
+    @Override
+    public Collection<Worker> values() {
+        return store.values();
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return store.countByStatus(status);
+    }
+
+    @Override
+    public ArrayList<Worker> greaterThanStatus(Status status) {
+        return store.greaterThanStatus(status);
+    }
+
+    @Override
+    public double minSalary() {
+        return store.minSalary();
+    }
+
+    @Override
+    public ArrayList<Worker> salaryRange(double from, double to) {
+        return store.salaryRange(from, to);
+    }
+
+    @Override
+    public Worker salaryPercentile(double percentile) {
+        return store.salaryPercentile(percentile);
+    }
+}
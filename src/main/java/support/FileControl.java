@@ -11,47 +11,102 @@ import exceptions.WrongArgumentsException;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class FileControl {
     private final String[] file;
+    private final List<String> options = new ArrayList<>();
 
     /**
-     * Constructor for FileControl
+     * Constructor for FileControl. Arguments starting with "--" are treated as options,
+     * all the other arguments are treated as the file path.
      *
-     * @param file an array of strings representing the file path
+     * @param file an array of strings representing the file path and the options
      */
 
     public FileControl(String[] file) {
-        this.file = file;
+        List<String> paths = new ArrayList<>();
+        for (String arg : file) {
+            if (arg.startsWith("--")) options.add(arg);
+            else paths.add(arg);
+        }
+        this.file = paths.toArray(new String[0]);
         CollectionControl.timeInitialization = LocalDateTime.now();
     }
 
     /**
-     * Writes a list of workers to an XML file specified by the given path. The XML file will contain the name, coordinates,
+     * Checks whether the given option was passed on the command line.
+     *
+     * @param option the option, for example "--dom"
+     * @return true if the option was passed, false otherwise
+     */
+    public boolean hasOption(String option) {
+        return options.contains(option);
+    }
+
+    /**
+     * Returns the value of an option passed as "--name=value".
+     *
+     * @param option the option without the value, for example "--server"
+     * @return the value, an empty string if the option was passed without a value, or null if it was not passed
+     */
+    public String optionValue(String option) {
+        for (String passed : options) {
+            if (passed.equals(option)) return "";
+            if (passed.startsWith(option + "=")) return passed.substring(option.length() + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Writes a list of workers to an XML file specified by the given path. The XML file will contain the ID, name, coordinates,
      * salary, position, status, and personal information (birthday, height, passportID, and location) of each worker.
+     * If the collection is saved in the binary format, a binary snapshot is written instead.
      *
      * @param workers the list of workers to be written to the file
      * @param file    the path of the file to be written
      * @throws IOException        if an I/O error occurs while writing the file
      * @throws XMLStreamException if an error occurs while writing the XML document
      */
-    public void writeToFile(ArrayList<Worker> workers, String file) throws IOException, XMLStreamException {
+    public void writeToFile(Collection<Worker> workers, String file) throws IOException, XMLStreamException {
         try {
-            file = file.trim() + "\\workers.xml".trim();
+            if (isBinary()) new BinarySnapshot(file.trim() + "\\workers.bin").write(workers);
+            else writeXml(workers, file.trim() + "\\workers.xml".trim());
+        } catch (FileNotFoundException e) {
+            Console.err("сюда сохранить невозможно!");
+        }
+    }
+
+    /**
+     * Writes a list of workers to the XML file with exactly the given path.
+     *
+     * @param workers the list of workers to be written to the file
+     * @param file    the path of the file to be written
+     * @throws IOException        if an I/O error occurs while writing the file
+     * @throws XMLStreamException if an error occurs while writing the XML document
+     */
+    public void writeXml(Collection<Worker> workers, String file) throws IOException, XMLStreamException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
             XMLOutputFactory factory = XMLOutputFactory.newInstance();
-            XMLStreamWriter writer = factory.createXMLStreamWriter(new FileOutputStream(file), "UTF-8");
+            XMLStreamWriter writer = factory.createXMLStreamWriter(out, "UTF-8");
             writer.writeStartDocument("UTF-8", "1.0");
             writer.writeStartElement("workers");
             for (Worker worker : workers) {
                 writer.writeStartElement("worker");
+                writer.writeStartElement("id");
+                writer.writeCharacters(String.valueOf(worker.getID()));
+                writer.writeEndElement();
                 writer.writeStartElement("name");
                 writer.writeCharacters(worker.getName());
                 writer.writeEndElement();
@@ -74,7 +129,8 @@ public class FileControl {
                 writer.writeEndElement();
                 writer.writeStartElement("person");
                 writer.writeStartElement("birthday");
-                writer.writeCharacters(String.valueOf(worker.getPerson().getBirthday()));
+                LocalDateTime birthday = worker.getPerson().getBirthday();
+                writer.writeCharacters(String.valueOf(birthday == null ? null : birthday.toLocalDate()));
                 writer.writeEndElement();
                 writer.writeStartElement("height");
                 writer.writeCharacters(String.valueOf(worker.getPerson().getHeight()));
@@ -97,22 +153,48 @@ public class FileControl {
                 writer.writeEndElement();
                 writer.writeEndElement();
                 writer.writeEndElement();
+                writer.writeEndElement();
             }
             writer.writeEndElement();
             writer.writeEndDocument();
             writer.flush();
             writer.close();
-        } catch (FileNotFoundException e) {
-            Console.err("сюда сохранить невозможно!");
         }
     }
 
     /**
-     * Reads worker information from an XML file and returns a list of workers
+     * Writes the workers to the file with exactly the given path, in the format the collection is saved in.
      *
-     * @return a List of workers read from the XML file
+     * @param workers the list of workers to be written to the file
+     * @param file    the path of the file to be written
+     * @throws IOException        if an I/O error occurs while writing the file
+     * @throws XMLStreamException if an error occurs while writing the XML document
      */
-    public List<Worker> readXmlFile() {
+    public void writeSnapshot(Collection<Worker> workers, String file) throws IOException, XMLStreamException {
+        if (isBinary()) new BinarySnapshot(file).write(workers);
+        else writeXml(workers, file);
+    }
+
+    /**
+     * Checks whether the collection is saved in the binary format. It is picked by the ".bin" extension
+     * of the file or by the "--binary" option. Loading does not depend on it, the format of the file is
+     * recognized by its content.
+     *
+     * @return true if the binary format is used, false if XML is used
+     */
+    public boolean isBinary() {
+        return hasOption("--binary") || (file.length == 1 && BinarySnapshot.isBinaryFile(file[0]));
+    }
+
+    /**
+     * Reads worker information from the collection file and returns a list of workers.
+     * Binary snapshots are recognized by their magic number and memory mapped. XML files are streamed with StAX, the "--dom" option switches
+     * back to the DOM parser and the "--parallel" option parses chunks of the file on all cores. With the "--dedup" option every
+     * worker whose content has already been read is dropped by a {@link DuplicateFilter} as the file is parsed.
+     *
+     * @return a List of workers read from the file
+     */
+    public List<Worker> readFile() {
         try {
             if (file.length != 1) {
                 // Генерируем WrongArgumentsException, если в массиве не ровно один аргумент
@@ -120,8 +202,14 @@ public class FileControl {
             }
             checkFilePermissions(this.file[0]);
 
-            ParserXml parserXml = new ParserXml(this.file[0]);
-            return parserXml.parseWorkersFromXML();
+            DuplicateFilter filter = hasOption("--dedup") ? new DuplicateFilter() : null;
+            List<Worker> workers;
+            if (BinarySnapshot.isSnapshot(this.file[0])) workers = readBinaryFile(filter);
+            else if (hasOption("--dom")) workers = new ParserXml(this.file[0], filter).parseWorkersFromXMLDom();
+            else if (hasOption("--parallel")) workers = new ParallelXmlLoader(this.file[0], ForkJoinPool.commonPool(), filter).load();
+            else workers = new ParserXml(this.file[0], filter).parseWorkersFromXML();
+            if (filter != null && filter.skipped() > 0) Console.writeln("Пропущено повторяющихся элементов: " + filter.skipped());
+            return workers;
 
         } catch (EmptyInputException e) {
             Console.err("в аргумент командной строки было передано null");
@@ -136,6 +224,51 @@ public class FileControl {
         return null;
     }
 
+    /**
+     * Opens the binary snapshot the collection was started with for lazy reading. The snapshot is memory mapped
+     * and its workers are decoded when they are used, so the startup time does not depend on the size of the file.
+     * The "--eager" option switches it off and the whole snapshot is read by {@link #readFile()} instead.
+     *
+     * @return the opened snapshot, or null if the file is not a binary snapshot or lazy reading is switched off
+     */
+    public LazySnapshot openLazySnapshot() {
+        if (file.length != 1 || hasOption("--eager") || !BinarySnapshot.isSnapshot(this.file[0])) return null;
+        try {
+            checkFilePermissions(this.file[0]);
+            return LazySnapshot.open(this.file[0]);
+        } catch (IOException e) {
+            Console.err("Неверные данные в бинарном файле: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the binary snapshot the collection was started with.
+     *
+     * @param filter the filter of duplicate workers, or null to keep every worker
+     * @return a List of workers read from the file, or null if the snapshot cannot be read
+     */
+    private List<Worker> readBinaryFile(DuplicateFilter filter) {
+        try {
+            List<Worker> workers = new BinarySnapshot(this.file[0]).read();
+            return ParserXml.numerate(filter == null ? workers : filter.accept(workers));
+        } catch (IOException e) {
+            Console.err("Неверные данные в бинарном файле: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Creates the journal of the file the collection was loaded from. Journaling is switched off
+     * with the "--no-journal" option.
+     *
+     * @return the journal, or null if journaling is switched off or there is no file
+     */
+    public Journal createJournal() {
+        if (file.length != 1 || hasOption("--no-journal")) return null;
+        return new Journal(this.file[0], this);
+    }
+
     /**
      * Checks the permissions of the file specified by the argument
      *
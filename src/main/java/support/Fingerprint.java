@@ -0,0 +1,104 @@
+/**
+ * The Fingerprint class computes a 64-bit hash of the content of a worker: every attribute that
+ * {@link Worker#equals(Object)} compares, and neither the ID nor the creation date. Equal workers always have the
+ * same fingerprint. Each value is multiplied and rotated into the hash and the result goes through the final mix of
+ * MurmurHash3, so a change in any bit of any attribute changes about half of the bits of the fingerprint and
+ * workers that differ only slightly are spread over the whole range.
+ * <p>
+ * Unequal workers can still share a fingerprint, so a match has to be confirmed with equals.
+ */
+package support;
+
+import data.Coordinates;
+import data.Location;
+import data.Person;
+import data.Worker;
+
+import java.time.LocalDateTime;
+
+public final class Fingerprint {
+    /**
+     * The value no fingerprint takes, so it can mark an empty slot of a table.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+    private static final long NULL = 0x6A09E667F3BCC909L;
+    private static final long MULTIPLIER_1 = 0x87C37B91114253D5L;
+    private static final long MULTIPLIER_2 = 0x4CF5AD432745937FL;
+
+    private Fingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of the worker.
+     *
+     * @param worker the worker
+     * @return the fingerprint, never {@link #NONE}
+     */
+    public static long of(Worker worker) {
+        long hash = mix(SEED, worker.getName());
+        Coordinates coordinates = worker.getCoordinates();
+        if (coordinates == null) {
+            hash = mix(hash, NULL);
+        } else {
+            hash = mix(hash, coordinates.getX() == null ? NULL : coordinates.getX());
+            hash = mix(hash, coordinates.getY());
+        }
+        hash = mix(hash, worker.getSalary() == null ? NULL : Double.doubleToLongBits(worker.getSalary()));
+        hash = mix(hash, worker.getPosition() == null ? NULL : worker.getPosition().ordinal());
+        hash = mix(hash, worker.getStatus() == null ? NULL : worker.getStatus().ordinal());
+        Person person = worker.getPerson();
+        if (person == null) {
+            hash = mix(hash, NULL);
+        } else {
+            LocalDateTime birthday = person.getBirthday();
+            if (birthday == null) {
+                hash = mix(hash, NULL);
+            } else {
+                hash = mix(hash, birthday.toLocalDate().toEpochDay());
+                hash = mix(hash, birthday.toLocalTime().toNanoOfDay());
+            }
+            hash = mix(hash, person.getHeight());
+            hash = mix(hash, person.getPassportID());
+            Location location = person.getLocation();
+            if (location == null) {
+                hash = mix(hash, NULL);
+            } else {
+                hash = mix(hash, Float.floatToIntBits(location.getX()));
+                hash = mix(hash, location.getY());
+                hash = mix(hash, location.getZ());
+                hash = mix(hash, location.getName());
+            }
+        }
+        hash = finish(hash);
+        return hash == NONE ? NONE + 1 : hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return Long.rotateLeft(hash ^ value * MULTIPLIER_1, 31) * MULTIPLIER_2;
+    }
+
+    /**
+     * Mixes in the characters of the text two at a time and then its length, so "ab" + "c" and "a" + "bc"
+     * in two attributes give different hashes.
+     */
+    private static long mix(long hash, String text) {
+        if (text == null) return mix(hash, NULL);
+        int length = text.length();
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            hash = mix(hash, (long) text.charAt(i) << 16 | text.charAt(i + 1));
+        }
+        if (i < length) hash = mix(hash, text.charAt(i));
+        return mix(hash, ~(long) length);
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+}
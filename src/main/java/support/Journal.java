@@ -0,0 +1,300 @@
+/**
+ * The Journal class is a write-ahead log of the changes of the collection. Every add, update, remove, remove_greater,
+ * clear and sort is appended to {@code <file>.journal} and forced to disk while the command runs, so a save costs as much
+ * I/O as the change itself. When the journal grows too long, it is rotated to {@code <file>.journal.old} and the
+ * collection is written back to the snapshot file in the background, after which the old journal is deleted.
+ * On startup the snapshot is loaded first and then both journals are replayed on top of it.
+ * Every record is framed with its length and a CRC32, a record torn by a crash is dropped on replay.
+ */
+package support;
+
+import data.Worker;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+public class Journal {
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte REMOVE = 3;
+    private static final byte CLEAR = 4;
+    private static final byte SORT = 5;
+    private static final byte BATCH = 6;
+    private static final byte REMOVE_GREATER = 7;
+    private static final int COMPACT_THRESHOLD = 10_000;
+    private static final int MAX_RECORD = 1 << 20;
+    private static final int BATCH_RECORD = MAX_RECORD / 2;
+
+    private final Path snapshot;
+    private final Path current;
+    private final Path old;
+    private final FileControl fileControl;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel channel;
+    private int records;
+
+    /**
+     * Constructs a journal for the given snapshot file.
+     *
+     * @param file        the path of the snapshot file
+     * @param fileControl the FileControl object used to write the snapshot
+     */
+    public Journal(String file, FileControl fileControl) {
+        this.snapshot = Path.of(file);
+        this.current = Path.of(file + ".journal");
+        this.old = Path.of(file + ".journal.old");
+        this.fileControl = fileControl;
+    }
+
+    /**
+     * Replays the journals on top of the loaded snapshot and opens the journal for appending.
+     * The replayed records count towards the next compaction, so a lazily opened snapshot is not
+     * materialized on startup.
+     *
+     * @param collectionControl the collection the snapshot was loaded into
+     * @throws IOException if a journal cannot be read or opened
+     */
+    public void open(CollectionControl collectionControl) throws IOException {
+        int replayed = replay(old, collectionControl) + replay(current, collectionControl);
+        channel = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        records = replayed;
+    }
+
+    /**
+     * Appends an added worker to the journal.
+     *
+     * @param worker the added worker
+     */
+    public void logAdd(Worker worker) {
+        append(ADD, worker, 0);
+    }
+
+    /**
+     * Appends an updated worker to the journal.
+     *
+     * @param worker the new version of the worker
+     */
+    public void logUpdate(Worker worker) {
+        append(UPDATE, worker, 0);
+    }
+
+    /**
+     * Appends the workers added by a batch to the journal. They are packed into as few records as possible and
+     * forced to disk once, so a batch costs a single sync. A record holds the workers of up to half a megabyte,
+     * after a crash a batch is replayed up to its last whole record.
+     *
+     * @param workers the added workers
+     */
+    public void logBatch(List<Worker> workers) {
+        try {
+            int next = 0;
+            while (next < workers.size()) {
+                record.reset();
+                recordOut.writeByte(BATCH);
+                while (next < workers.size() && record.size() < BATCH_RECORD) {
+                    WorkerCodec.write(recordOut, workers.get(next++));
+                }
+                writeFrame(record.toByteArray());
+            }
+            channel.force(false);
+            records += workers.size();
+        } catch (IOException e) {
+            Console.err("не удалось записать журнал: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends a removal to the journal.
+     *
+     * @param id the ID of the removed worker
+     */
+    public void logRemove(int id) {
+        append(REMOVE, null, id);
+    }
+
+    /**
+     * Appends the removal of all workers whose name comes after the given one. However many workers it removed,
+     * it is one record: replaying it on the same collection removes the same workers.
+     *
+     * @param name the name the removed workers are greater than
+     */
+    public void logRemoveGreater(String name) {
+        try {
+            record.reset();
+            recordOut.writeByte(REMOVE_GREATER);
+            recordOut.writeUTF(name);
+            writeFrame(record.toByteArray());
+            channel.force(false);
+            records++;
+        } catch (IOException e) {
+            Console.err("не удалось записать журнал: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the clearing of the collection to the journal.
+     */
+    public void logClear() {
+        append(CLEAR, null, 0);
+    }
+
+    /**
+     * Appends the sorting of the collection to the journal.
+     */
+    public void logSort() {
+        append(SORT, null, 0);
+    }
+
+    /**
+     * Checks whether the journal has grown long enough to be compacted into the snapshot.
+     *
+     * @return true if a compaction should be started
+     */
+    public boolean needsCompaction() {
+        return records >= COMPACT_THRESHOLD && !compacting.get();
+    }
+
+    /**
+     * Rotates the journal and writes the given workers into the snapshot file in the background.
+     * The rotated journal is deleted once the snapshot is safely in place.
+     *
+     * @param workers the workers of the collection at the moment of the rotation
+     */
+    public void compact(Collection<Worker> workers) {
+        if (!compacting.compareAndSet(false, true)) return;
+        ArrayList<Worker> copy = new ArrayList<>(workers);
+        try {
+            rotate();
+        } catch (IOException e) {
+            compacting.set(false);
+            Console.err("не удалось сжать журнал: " + e.getMessage());
+            return;
+        }
+        compactor.submit(() -> {
+            try {
+                Path temporary = Path.of(snapshot + ".tmp");
+                fileControl.writeSnapshot(copy, temporary.toString());
+                Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(old);
+            } catch (Exception e) {
+                Console.err("не удалось сохранить снимок коллекции: " + e.getMessage());
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    private void append(byte operation, Worker worker, int id) {
+        try {
+            record.reset();
+            recordOut.writeByte(operation);
+            if (worker != null) WorkerCodec.write(recordOut, worker);
+            if (operation == REMOVE) recordOut.writeInt(id);
+            writeFrame(record.toByteArray());
+            channel.force(false);
+            records++;
+        } catch (IOException e) {
+            Console.err("не удалось записать журнал: " + e.getMessage());
+        }
+    }
+
+    private void writeFrame(byte[] payload) throws IOException {
+        crc.reset();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(payload.length + 8);
+        frame.putInt(payload.length).put(payload).putInt((int) crc.getValue()).flip();
+        while (frame.hasRemaining()) channel.write(frame);
+    }
+
+    /**
+     * Moves the current journal to the old one and starts a new current journal. If an old journal is still
+     * there after a crash, the current one is appended to it instead, so no record is lost.
+     */
+    private void rotate() throws IOException {
+        channel.close();
+        if (Files.exists(old)) {
+            try (FileChannel target = FileChannel.open(old, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                 FileChannel source = FileChannel.open(current, StandardOpenOption.READ)) {
+                long position = 0;
+                while (position < source.size()) {
+                    position += source.transferTo(position, source.size() - position, target);
+                }
+                target.force(false);
+            }
+            Files.delete(current);
+        } else {
+            Files.move(current, old, StandardCopyOption.ATOMIC_MOVE);
+        }
+        channel = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        records = 0;
+    }
+
+    /**
+     * Applies every whole record of the journal file to the collection. A damaged tail is cut off the file,
+     * so new records are never appended after garbage.
+     *
+     * @return the number of applied records
+     */
+    private int replay(Path path, CollectionControl collectionControl) throws IOException {
+        if (!Files.exists(path)) return 0;
+        int count = 0;
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD) break;
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if (in.readInt() != (int) crc.getValue()) break;
+                } catch (EOFException e) {
+                    break;
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(payload)), collectionControl);
+                valid += payload.length + 8;
+                count++;
+            }
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (file.size() > valid) file.truncate(valid);
+        }
+        return count;
+    }
+
+    private void apply(DataInputStream in, CollectionControl collectionControl) throws IOException {
+        switch (in.readByte()) {
+            case ADD, UPDATE -> collectionControl.restore(WorkerCodec.read(in));
+            case REMOVE -> collectionControl.removeElementByID(in.readInt());
+            case CLEAR -> collectionControl.clear();
+            case SORT -> collectionControl.sort();
+            case REMOVE_GREATER -> collectionControl.removeGreater(in.readUTF());
+            case BATCH -> {
+                while (in.available() > 0) collectionControl.restore(WorkerCodec.read(in));
+            }
+            default -> throw new IOException("неизвестная запись журнала");
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/**
+ * The LazySnapshot class gives access to the workers of a binary snapshot without loading it. The file is memory
+ * mapped and only the header is read on open, so opening takes the same time whatever the size of the file.
+ * The ID table at the end of the snapshot tells whether a worker is in it, so a worker that is updated or removed
+ * is only marked as taken out, without being decoded. A single worker is decoded when it is read by its ID, the
+ * IDs can be walked in the ID table alone, the passport IDs, salaries or statuses can be walked without decoding
+ * the rest of the records, and all workers are decoded when the whole snapshot is walked.
+ * The pages of the file are loaded by the operating system as they are touched, so resident memory follows
+ * the workers actually used.
+ */
+package support;
+
+import data.Status;
+import data.Worker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class LazySnapshot {
+    private static final long SEGMENT = 1L << 30;
+    private static final long OVERLAP = 1L << 20;
+    private static final int TABLE_ENTRY = 4 + 8;
+    private static final int[] IN_ORDER = new int[0];
+
+    private final ByteBuffer table;
+    private final ByteBuffer[] segments;
+    private final int count;
+    private final int maxId;
+    private final BitSet taken = new BitSet();
+    private int pending;
+    private volatile int[] fileOrder;
+
+    /**
+     * Visits the records of a snapshot in file order.
+     */
+    public interface RecordVisitor {
+        /**
+         * Called for every record of the snapshot.
+         *
+         * @param id     the ID of the worker
+         * @param worker the decoded worker, or null if it was already taken out of the snapshot
+         */
+        void visit(int id, Worker worker);
+    }
+
+    /**
+     * Visits the passport IDs of the pending workers of a snapshot in file order.
+     */
+    public interface PassportVisitor {
+        /**
+         * Called for every pending worker of the snapshot.
+         *
+         * @param id         the ID of the worker
+         * @param passportID the passport ID of the worker
+         */
+        void visit(int id, String passportID);
+    }
+
+    /**
+     * Visits the salaries of the pending workers of a snapshot in file order.
+     */
+    public interface SalaryVisitor {
+        /**
+         * Called for every pending worker of the snapshot.
+         *
+         * @param id     the ID of the worker
+         * @param salary the salary of the worker
+         */
+        void visit(int id, double salary);
+    }
+
+    /**
+     * Visits the statuses of the pending workers of a snapshot in file order.
+     */
+    public interface StatusVisitor {
+        /**
+         * Called for every pending worker of the snapshot.
+         *
+         * @param id     the ID of the worker
+         * @param status the status of the worker
+         */
+        void visit(int id, Status status);
+    }
+
+    /**
+     * Visits the entries of the ID table of a snapshot in the order of their records.
+     */
+    public interface IdVisitor {
+        /**
+         * Called for every ID in the snapshot until it returns false.
+         *
+         * @param id      the ID of the worker
+         * @param pending whether the worker is still only in the snapshot
+         * @return true to go on with the next ID
+         */
+        boolean visit(int id, boolean pending);
+    }
+
+    private LazySnapshot(ByteBuffer table, ByteBuffer[] segments, int count, int maxId) {
+        this.table = table;
+        this.segments = segments;
+        this.count = count;
+        this.maxId = maxId;
+        this.pending = count;
+    }
+
+    /**
+     * Maps the binary snapshot and reads its header.
+     *
+     * @param file the path of the snapshot
+     * @return the opened snapshot
+     * @throws IOException if the file cannot be mapped or is not a snapshot of a supported version
+     */
+    public static LazySnapshot open(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinarySnapshot.HEADER_SIZE);
+            if (header.getInt() != BinarySnapshot.MAGIC) throw new IOException("файл не является бинарным снимком коллекции");
+            int version = header.getInt();
+            if (version != BinarySnapshot.VERSION) throw new IOException("неподдерживаемая версия снимка: " + version);
+            int count = header.getInt();
+            int maxId = header.getInt();
+            long tableOffset = header.getLong();
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, tableOffset, (long) count * TABLE_ENTRY);
+            long data = tableOffset - BinarySnapshot.HEADER_SIZE;
+            ByteBuffer[] segments = new ByteBuffer[(int) Math.max(1, (data + SEGMENT - 1) / SEGMENT)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = BinarySnapshot.HEADER_SIZE + i * SEGMENT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT + OVERLAP, tableOffset - start));
+            }
+            return new LazySnapshot(table, segments, count, maxId);
+        }
+    }
+
+    /**
+     * Returns the number of workers that are still only in the snapshot.
+     *
+     * @return the number of pending workers
+     */
+    public int pending() {
+        return pending;
+    }
+
+    /**
+     * Returns the largest ID in the snapshot.
+     *
+     * @return the largest ID
+     */
+    public int maxId() {
+        return maxId;
+    }
+
+    /**
+     * Checks whether the snapshot has a record with the given ID, whether or not it was taken out since.
+     *
+     * @param id the ID of the worker
+     * @return true if the ID is in the ID table
+     */
+    public boolean has(int id) {
+        return id >= 0 && find(id) >= 0;
+    }
+
+    /**
+     * Checks whether the worker with the given ID is still only in the snapshot.
+     *
+     * @param id the ID of the worker
+     * @return true if the worker is pending
+     */
+    public boolean contains(int id) {
+        return id >= 0 && !taken.get(id) && find(id) >= 0;
+    }
+
+    /**
+     * Takes the worker with the given ID out of the snapshot without decoding it.
+     *
+     * @param id the ID of the worker
+     * @return true if the worker was pending
+     */
+    public boolean drop(int id) {
+        if (!contains(id)) return false;
+        taken.set(id);
+        pending--;
+        return true;
+    }
+
+    /**
+     * Decodes the pending worker with the given ID without taking it out of the snapshot.
+     *
+     * @param id the ID of the worker
+     * @return the worker, or null if it is not pending
+     * @throws IOException if the record is damaged
+     */
+    public Worker read(int id) throws IOException {
+        if (id < 0 || taken.get(id)) return null;
+        int index = find(id);
+        if (index < 0) return null;
+        ByteBuffer record = at(table.getLong(index * TABLE_ENTRY + 4));
+        record.getInt();
+        return WorkerCodec.read(record);
+    }
+
+    /**
+     * Walks all records in file order and reads only the passport IDs of the pending ones.
+     *
+     * @param visitor the visitor of the passport IDs
+     * @throws IOException if a record is damaged
+     */
+    public void walkPassports(PassportVisitor visitor) throws IOException {
+        long position = BinarySnapshot.HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            ByteBuffer record = at(position);
+            int size = record.getInt();
+            int id = record.getInt(record.position());
+            if (!taken.get(id)) visitor.visit(id, WorkerCodec.readPassportID(record));
+            position += size + 4;
+        }
+    }
+
+    /**
+     * Walks all records in file order and reads only the salaries of the pending ones.
+     *
+     * @param visitor the visitor of the salaries
+     * @throws IOException if a record is damaged
+     */
+    public void walkSalaries(SalaryVisitor visitor) throws IOException {
+        long position = BinarySnapshot.HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            ByteBuffer record = at(position);
+            int size = record.getInt();
+            int id = record.getInt(record.position());
+            if (!taken.get(id)) visitor.visit(id, WorkerCodec.readSalary(record));
+            position += size + 4;
+        }
+    }
+
+    /**
+     * Walks all records in file order and reads only the statuses of the pending ones.
+     *
+     * @param visitor the visitor of the statuses
+     * @throws IOException if a record is damaged
+     */
+    public void walkStatuses(StatusVisitor visitor) throws IOException {
+        long position = BinarySnapshot.HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            ByteBuffer record = at(position);
+            int size = record.getInt();
+            int id = record.getInt(record.position());
+            if (!taken.get(id)) visitor.visit(id, WorkerCodec.readStatus(record));
+            position += size + 4;
+        }
+    }
+
+    /**
+     * Walks the ID table in file order without touching the records. The table is sorted by ID, so the first walk
+     * ranks its entries by the offsets they hold, unless the offsets are already ascending.
+     *
+     * @param visitor the visitor of the IDs
+     */
+    public void walkIds(IdVisitor visitor) {
+        int[] order = fileOrder();
+        for (int i = 0; i < count; i++) {
+            int id = table.getInt((order == IN_ORDER ? i : order[i]) * TABLE_ENTRY);
+            if (!visitor.visit(id, !taken.get(id))) return;
+        }
+    }
+
+    /**
+     * Walks all records in file order and decodes the pending ones.
+     *
+     * @param visitor the visitor of the records
+     * @throws IOException if a record is damaged
+     */
+    public void walk(RecordVisitor visitor) throws IOException {
+        long position = BinarySnapshot.HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            ByteBuffer record = at(position);
+            int size = record.getInt();
+            int id = record.getInt(record.position());
+            visitor.visit(id, taken.get(id) ? null : WorkerCodec.read(record));
+            position += size + 4;
+        }
+    }
+
+    /**
+     * Returns the indexes of the ID table entries in the order of their records, or {@link #IN_ORDER} if the table
+     * is in file order already.
+     */
+    private int[] fileOrder() {
+        int[] order = fileOrder;
+        if (order != null) return order;
+        long[] offsets = new long[count];
+        boolean ascending = true;
+        for (int i = 0; i < count; i++) {
+            offsets[i] = table.getLong(i * TABLE_ENTRY + 4);
+            if (i > 0 && offsets[i] < offsets[i - 1]) ascending = false;
+        }
+        if (ascending) {
+            order = IN_ORDER;
+        } else {
+            long[] sorted = offsets.clone();
+            Arrays.sort(sorted);
+            order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[Arrays.binarySearch(sorted, offsets[i])] = i;
+            }
+        }
+        fileOrder = order;
+        return order;
+    }
+
+    /**
+     * Finds the ID in the ID table with a binary search.
+     *
+     * @return the index of the entry, or -1 if the ID is not in the snapshot
+     */
+    private int find(int id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = table.getInt(middle * TABLE_ENTRY);
+            if (middleId < id) low = middle + 1;
+            else if (middleId > id) high = middle - 1;
+            else return middle;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a buffer positioned at the record with the given offset in the file.
+     */
+    private ByteBuffer at(long offset) {
+        long relative = offset - BinarySnapshot.HEADER_SIZE;
+        int segment = (int) (relative / SEGMENT);
+        return segments[segment].duplicate().position((int) (relative - segment * SEGMENT));
+    }
+}
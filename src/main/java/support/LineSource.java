@@ -0,0 +1,18 @@
+/**
+ * The LineSource interface is where CommunicationControl reads the answers to its prompts from: the console
+ * while the user types, or the data lines of a script while it runs.
+ */
+package support;
+
+import java.util.NoSuchElementException;
+
+@FunctionalInterface
+public interface LineSource {
+    /**
+     * Returns the next line of input without the line separator.
+     *
+     * @return the next line
+     * @throws NoSuchElementException if there are no more lines
+     */
+    String nextLine();
+}
@@ -0,0 +1,98 @@
+/**
+ * The MapWorkerStore class is the default storage engine. The workers are kept as objects in a LinkedHashMap by
+ * their ID, and the status and salary queries are answered by a {@link StatusIndex} and a {@link SalaryIndex}
+ * that are updated on every change.
+ */
+package support;
+
+import data.Status;
+import data.Worker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+public class MapWorkerStore implements WorkerStore {
+    private final LinkedHashMap<Integer, Worker> workers = new LinkedHashMap<>();
+    private final StatusIndex statusIndex = new StatusIndex();
+    private final SalaryIndex salaryIndex = new SalaryIndex();
+
+    @Override
+    public int size() {
+        return workers.size();
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return workers.containsKey(id);
+    }
+
+    @Override
+    public Worker get(int id) {
+        return workers.get(id);
+    }
+
+    @Override
+    public void put(Worker worker) {
+        Worker previous = workers.put(worker.getID(), worker);
+        if (previous != null) unindex(previous);
+        statusIndex.add(worker);
+        salaryIndex.add(worker);
+    }
+
+    @Override
+    public Worker remove(int id) {
+        Worker worker = workers.remove(id);
+        if (worker != null) unindex(worker);
+        return worker;
+    }
+
+    @Override
+    public void clear() {
+        workers.clear();
+        statusIndex.clear();
+        salaryIndex.clear();
+    }
+
+    @Override
+    public Collection<Worker> values() {
+        return Collections.unmodifiableCollection(workers.values());
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return statusIndex.count(status);
+    }
+
+    @Override
+    public ArrayList<Worker> greaterThanStatus(Status status) {
+        return statusIndex.greaterThan(status);
+    }
+
+    @Override
+    public double minSalary() {
+        return salaryIndex.minSalary();
+    }
+
+    @Override
+    public ArrayList<Worker> salaryRange(double from, double to) {
+        int[] ids = salaryIndex.range(from, to);
+        ArrayList<Worker> workerList = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            workerList.add(workers.get(id));
+        }
+        return workerList;
+    }
+
+    @Override
+    public Worker salaryPercentile(double percentile) {
+        int id = salaryIndex.percentile(percentile);
+        return id < 0 ? null : workers.get(id);
+    }
+
+    private void unindex(Worker worker) {
+        statusIndex.remove(worker);
+        salaryIndex.remove(worker);
+    }
+}
@@ -0,0 +1,313 @@
+/**
+ * The NioCollectionServer class serves the collection to many clients from a single thread. A selector watches all
+ * connections; the bytes of a connection are read into a direct buffer taken from a pool, split into requests and
+ * run through the CommandControl of the connection, and the replies are queued and sent with gathering writes. A
+ * client may pipeline: it can send many requests at once and read the replies later, in the same order.
+ * <p>
+ * Nothing ever waits for the client, so the answers of a command must arrive with it. A request is the command
+ * line followed by the answers to its prompts, one per line, and ends with a blank line; no prompt takes an empty
+ * answer, so the blank line cannot be one. A request is run only when its blank line has arrived, however the
+ * bytes were split between reads, and its lines are never taken for commands: a command that reads fewer lines
+ * than were sent leaves the rest unread, and one that needs more fails. The prompts are not printed, and a
+ * command whose answers are invalid fails instead of asking again. {@link Session} accepts the same requests.
+ * Every reply ends with the ">>" prompt at the start of a line. Like {@link CollectionServer}, it listens on the loopback address unless
+ * another address is given, and the connections get no commands that touch files.
+ */
+package support;
+
+import exceptions.InputException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+public class NioCollectionServer implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 14;
+    private static final int POOLED_BUFFERS = 256;
+    private static final int MAX_REQUEST_LINES = 1024;
+    private static final byte[] PROMPT = ">>".getBytes(StandardCharsets.UTF_8);
+    private static final ByteBuffer[] NO_BUFFERS = new ByteBuffer[0];
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final CollectionControl collectionControl;
+    private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<>();
+    private final ByteArrayOutputStream reply = new ByteArrayOutputStream(1 << 12);
+    private final PrintStream replyStream = new PrintStream(reply, false, StandardCharsets.UTF_8);
+    private byte[] line = new byte[256];
+
+    /**
+     * Opens the server channel on the given port of the given address.
+     *
+     * @param address           the address to listen on, usually {@link InetAddress#getLoopbackAddress()}
+     * @param port              the port, or 0 to take any free port
+     * @param collectionControl the collection to serve
+     * @throws IOException if the port cannot be opened
+     */
+    public NioCollectionServer(InetAddress address, int port, CollectionControl collectionControl) throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        this.serverChannel.bind(new InetSocketAddress(address, port), 1024);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.collectionControl = collectionControl;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Runs the event loop until the server is closed.
+     */
+    public void serve() {
+        Console.writeln("Сервер коллекции слушает " + serverChannel.socket().getInetAddress().getHostAddress() + ":" + getPort());
+        while (selector.isOpen()) {
+            try {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            } catch (ClosedSelectorException e) {
+                return;
+            } catch (IOException e) {
+                Console.err("ошибка сервера: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops the event loop and closes every connection.
+     *
+     * @throws IOException if a channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (!key.isValid()) return;
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) read(connection);
+            if (key.isValid() && key.isWritable()) write(connection);
+        } catch (IOException e) {
+            drop(key);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connection.replies.add(ByteBuffer.wrap(PROMPT));
+        write(connection);
+    }
+
+    /**
+     * Reads what the client has sent, runs the complete requests and queues the replies. The partial last line stays
+     * in the buffer of the connection and the lines of an unfinished request stay in the connection; a connection
+     * without a partial line gives its buffer back to the pool. When the client closes the connection, its
+     * unfinished request is run as if it had ended with a blank line.
+     */
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.buffer != null ? connection.buffer : take();
+        connection.buffer = buffer;
+        int read = connection.channel.read(buffer);
+        buffer.flip();
+        boolean fits = split(buffer, connection);
+        buffer.compact();
+        if (!fits) {
+            Console.err("слишком длинный запрос от " + connection.channel.getRemoteAddress());
+            read = -1;
+        } else if (buffer.position() == buffer.capacity()) {
+            Console.err("слишком длинная строка от " + connection.channel.getRemoteAddress());
+            read = -1;
+        } else if (read < 0) {
+            connection.endRequest();
+        }
+        if (buffer.position() == 0) {
+            give(buffer);
+            connection.buffer = null;
+        }
+        run(connection);
+        if (read < 0) connection.closing = true;
+        write(connection);
+    }
+
+    /**
+     * Adds the complete lines of the buffer to the requests of the connection.
+     *
+     * @return false if a request has more lines than a connection may send
+     */
+    private boolean split(ByteBuffer buffer, Connection connection) {
+        int start = buffer.position();
+        for (int i = start; i < buffer.limit(); i++) {
+            if (buffer.get(i) != '\n') continue;
+            int length = i - start;
+            if (length > 0 && buffer.get(i - 1) == '\r') length--;
+            if (line.length < length) line = new byte[Math.max(length, line.length * 2)];
+            buffer.get(line, 0, length);
+            start = i + 1;
+            buffer.position(start);
+            if (!connection.add(new String(line, 0, length, StandardCharsets.UTF_8))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs the complete requests of the connection in order, each command reading the answers of its own request,
+     * and queues one reply per request.
+     */
+    private void run(Connection connection) {
+        Console.setOutput(replyStream);
+        try {
+            ArrayDeque<String> request;
+            while (!connection.closing && (request = connection.requests.poll()) != null) {
+                reply.reset();
+                String command = request.poll();
+                connection.answers = request;
+                try {
+                    connection.commandControl.execute(command.trim());
+                } catch (InputException e) {
+                    Console.err("Введенной команды не существет. Введите командочку help");
+                } catch (RuntimeException e) {
+                    Console.err("команда прервана: " + e.getMessage());
+                }
+                if (!request.isEmpty()) Console.err("строк запроса не прочитано: " + request.size());
+                if (!connection.closing) Console.write(">>");
+                replyStream.flush();
+                connection.replies.add(ByteBuffer.wrap(reply.toByteArray()));
+            }
+        } finally {
+            Console.resetOutput();
+        }
+    }
+
+    /**
+     * Sends the queued replies with one gathering write. While replies are left, the connection waits until it can
+     * write again and is not read from, so a client that does not read its replies cannot fill the memory.
+     */
+    private void write(Connection connection) throws IOException {
+        if (!connection.replies.isEmpty()) {
+            connection.channel.write(connection.replies.toArray(NO_BUFFERS));
+            while (!connection.replies.isEmpty() && !connection.replies.peek().hasRemaining()) {
+                connection.replies.poll();
+            }
+        }
+        if (!connection.replies.isEmpty()) {
+            connection.key.interestOps(SelectionKey.OP_WRITE);
+        } else if (connection.closing) {
+            drop(connection.key);
+        } else {
+            connection.key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void drop(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+        if (connection == null) return;
+        if (collectionControl.inBatch(connection.communicationControl)) {
+            collectionControl.rollbackBatch(connection.communicationControl);
+        }
+        if (connection.buffer != null) give(connection.buffer);
+        connection.buffer = null;
+    }
+
+    private ByteBuffer take() {
+        ByteBuffer buffer = pool.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    private void give(ByteBuffer buffer) {
+        buffer.clear();
+        if (pool.size() < POOLED_BUFFERS) pool.push(buffer);
+    }
+
+    /**
+     * The state of one client: its channel, its partial input, the requests not yet run and the replies not yet sent.
+     */
+    private final class Connection {
+        final SocketChannel channel;
+        final ArrayDeque<ArrayDeque<String>> requests = new ArrayDeque<>();
+        final ArrayDeque<ByteBuffer> replies = new ArrayDeque<>();
+        final CommunicationControl communicationControl;
+        final CommandControl commandControl;
+        SelectionKey key;
+        ByteBuffer buffer;
+        ArrayDeque<String> request = new ArrayDeque<>();
+        ArrayDeque<String> answers = new ArrayDeque<>();
+        boolean closing;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.communicationControl = new CommunicationControl(new Scanner(""), this::nextLine);
+            this.communicationControl.setLoop(false);
+            this.communicationControl.setQuiet(true);
+            this.commandControl = CommandControl.createRemote(collectionControl, communicationControl, () -> closing = true);
+        }
+
+        /**
+         * Adds a line to the request being received; a blank line ends the request and leading blank lines are
+         * skipped.
+         *
+         * @return false if the request has grown longer than a connection may send
+         */
+        boolean add(String line) {
+            if (line.isBlank()) {
+                endRequest();
+                return true;
+            }
+            request.add(line);
+            return request.size() <= MAX_REQUEST_LINES;
+        }
+
+        void endRequest() {
+            if (request.isEmpty()) return;
+            requests.add(request);
+            request = new ArrayDeque<>();
+        }
+
+        private String nextLine() {
+            String next = answers.poll();
+            if (next == null) throw new NoSuchElementException("ответы команды не пришли вместе с ней");
+            return next;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * The ParallelXmlLoader class loads the workers file on all cores. The file is memory mapped and split
+ * into chunks at {@code <worker>} element boundaries, every chunk is parsed and validated by
+ * {@link ParserXml} on a ForkJoinPool, and the results are joined back in file order.
+ * Files that are too big to map or are not UTF-8 encoded are handed to the sequential StAX parser, and so are
+ * files whose workers cannot all be found by the literal {@code <worker>} tag, such as {@code <worker id="1">}
+ * or a tag with a namespace prefix.
+ */
+package support;
+
+import data.Worker;
+import exceptions.InputException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class ParallelXmlLoader {
+    private static final byte[] WORKER_START = "<worker>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WORKERS_END = "</workers>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHUNK_PREFIX = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><workers>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHUNK_SUFFIX = "</workers>".getBytes(StandardCharsets.US_ASCII);
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final String file;
+    private final ForkJoinPool pool;
+    private final DuplicateFilter filter;
+
+    /**
+     * Constructs a loader for the given file that runs on the common ForkJoinPool.
+     *
+     * @param file the path of the XML file.
+     */
+    public ParallelXmlLoader(String file) {
+        this(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a loader for the given file that runs on the given pool.
+     *
+     * @param file the path of the XML file.
+     * @param pool the pool the chunks are parsed on.
+     */
+    public ParallelXmlLoader(String file, ForkJoinPool pool) {
+        this(file, pool, null);
+    }
+
+    /**
+     * Constructs a loader for the given file that runs on the given pool and drops the workers the filter has
+     * already seen. The chunks are parsed without the filter, which is not thread-safe, and the joined workers
+     * go through it in file order before they are numbered, so the same workers are dropped as by the
+     * sequential parser.
+     *
+     * @param file   the path of the XML file.
+     * @param pool   the pool the chunks are parsed on.
+     * @param filter the filter of duplicate workers, or null to keep every worker.
+     */
+    public ParallelXmlLoader(String file, ForkJoinPool pool, DuplicateFilter filter) {
+        this.file = file;
+        this.pool = pool;
+        this.filter = filter;
+    }
+
+    /**
+     * Parses all workers of the file in parallel. The workers are returned in file order
+     * and numbered exactly like the sequential parser numbers them.
+     *
+     * @return a list of Worker objects with the parsed data, or null if there is an error parsing the XML file.
+     */
+    public List<Worker> load() {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) return new ParserXml(file, filter).parseWorkersFromXML();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            Console.err("Неверные данные в xml файле!");
+            return null;
+        }
+        if (!isUtf8(buffer)) return new ParserXml(file, filter).parseWorkersFromXML();
+
+        try {
+            int end = lastIndexOf(buffer, WORKERS_END);
+            if (end < 0) return new ParserXml(file, filter).parseWorkersFromXML();
+            int[] bounds = splitAtWorkers(buffer, end, pool.getParallelism() * CHUNKS_PER_THREAD);
+            if (bounds.length < 2) {
+                return countElements(buffer, end) > 1 ? new ParserXml(file, filter).parseWorkersFromXML() : new ArrayList<>();
+            }
+            if (countElements(buffer, bounds[0]) > 1) return new ParserXml(file, filter).parseWorkersFromXML();
+            List<Worker> workers = pool.invoke(new ChunkTask(buffer, bounds, 0, bounds.length - 1));
+            return ParserXml.numerate(filter == null ? workers : filter.accept(workers));
+        } catch (IllegalStateException e) {
+            return new ParserXml(file, filter).parseWorkersFromXML();
+        } catch (Exception e) {
+            Console.err("Неверные данные в xml файле!");
+            return null;
+        }
+    }
+
+    /**
+     * Finds the chunk boundaries. The file is cut into equal pieces and every cut is moved forward
+     * to the next {@code <worker>} tag, the last boundary is the {@code </workers>} tag.
+     *
+     * @param buffer the mapped file.
+     * @param end    the position of the closing {@code </workers>} tag.
+     * @param chunks the wanted number of chunks.
+     * @return the sorted distinct start positions of the chunks followed by the end position.
+     */
+    private int[] splitAtWorkers(ByteBuffer buffer, int end, int chunks) {
+        int[] bounds = new int[chunks + 1];
+        int count = 0;
+        int previous = -1;
+        for (int i = 0; i < chunks; i++) {
+            int from = (int) ((long) end * i / chunks);
+            int start = indexOf(buffer, WORKER_START, Math.max(from, previous + 1), end);
+            if (start < 0) break;
+            bounds[count++] = start;
+            previous = start;
+        }
+        if (count == 0) return new int[0];
+        bounds[count++] = end;
+        int[] result = new int[count];
+        System.arraycopy(bounds, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Checks that the file can be cut into byte ranges, that is it has no byte order mark
+     * of UTF-16 and its XML declaration does not name an encoding other than UTF-8.
+     *
+     * @param buffer the mapped file.
+     * @return true if the file is UTF-8 encoded.
+     */
+    private static boolean isUtf8(ByteBuffer buffer) {
+        int length = Math.min(buffer.limit(), 200);
+        if (length >= 2 && ((buffer.get(0) & 0xFF) == 0xFE || (buffer.get(0) & 0xFF) == 0xFF)) return false;
+        byte[] head = new byte[length];
+        buffer.get(0, head);
+        String declaration = new String(head, StandardCharsets.ISO_8859_1);
+        int close = declaration.indexOf("?>");
+        if (!declaration.startsWith("<?xml") || close < 0) return true;
+        declaration = declaration.substring(0, close).toLowerCase(Locale.ROOT);
+        int encoding = declaration.indexOf("encoding");
+        return encoding < 0 || declaration.indexOf("utf-8", encoding) > 0;
+    }
+
+    /**
+     * Counts the start tags before the given position, the root element included. Comments, processing
+     * instructions and end tags are not counted. Anything but the root before the first chunk would be lost
+     * by the chunks, so the file is then parsed sequentially.
+     *
+     * @param buffer the mapped file.
+     * @param to     the position to stop at.
+     * @return the number of start tags.
+     */
+    private static int countElements(ByteBuffer buffer, int to) {
+        int count = 0;
+        for (int i = 0; i < to - 1; i++) {
+            if (buffer.get(i) != '<') continue;
+            byte next = buffer.get(i + 1);
+            if (next != '?' && next != '!' && next != '/') count++;
+        }
+        return count;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] pattern, int from, int to) {
+        outer:
+        for (int i = from; i <= to - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer.get(i + j) != pattern[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, byte[] pattern) {
+        outer:
+        for (int i = buffer.limit() - pattern.length; i >= 0; i--) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer.get(i + j) != pattern[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a range of chunks. Ranges are halved until a single chunk is left,
+     * the results of the halves are concatenated so the file order is kept.
+     */
+    private static class ChunkTask extends RecursiveTask<List<Worker>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+        private final int[] bounds;
+        private final int from;
+        private final int to;
+
+        ChunkTask(ByteBuffer buffer, int[] bounds, int from, int to) {
+            this.buffer = buffer;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Worker> compute() {
+            if (to - from == 1) return parseChunk(bounds[from], bounds[to]);
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(buffer, bounds, from, middle);
+            left.fork();
+            List<Worker> right = new ChunkTask(buffer, bounds, middle, to).compute();
+            List<Worker> result = left.join();
+            if (result.isEmpty()) return right;
+            result.addAll(right);
+            return result;
+        }
+
+        /**
+         * Parses the workers between two boundaries as a standalone document.
+         *
+         * @param start the position of the first {@code <worker>} tag of the chunk.
+         * @param end   the position right after the last worker of the chunk.
+         * @return the workers of the chunk in file order.
+         */
+        private List<Worker> parseChunk(int start, int end) {
+            InputStream chunk = new SequenceInputStream(Collections.enumeration(List.of(
+                    new ByteArrayInputStream(CHUNK_PREFIX),
+                    new ByteBufferInputStream(buffer.slice(start, end - start)),
+                    new ByteArrayInputStream(CHUNK_SUFFIX))));
+            try {
+                XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(chunk, "UTF-8");
+                try {
+                    return new ParserXml(null).parseWorkers(reader);
+                } finally {
+                    reader.close();
+                }
+            } catch (InputException e) {
+                throw new UncheckedIOException(e);
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * An InputStream over the remaining bytes of a ByteBuffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -1,7 +1,8 @@
 /**
  * The ParserXml class is responsible for parsing worker data from an XML file.
- * It uses the javax.xml.parsers library to read the XML file and extract the
- * necessary data, and creates Worker objects with the extracted data.
+ * By default it reads the file with a pull-based StAX reader and builds every Worker
+ * straight from the event stream, so no document tree of the whole file is ever built.
+ * The old javax.xml.parsers DOM path is kept as a fallback mode.
  */
 package support;
 
@@ -15,19 +16,23 @@ import org.w3c.dom.NodeList;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
-
-import static support.CommunicationControl.containsOnlyDigitsOrLetters;
 
 public class ParserXml {
     String file;
+    private final DuplicateFilter filter;
 
     /**
      * Constructs a new ParserXml object with the given file path.
@@ -35,16 +40,47 @@ public class ParserXml {
      * @param file the file path of the XML file to be parsed.
      */
     public ParserXml(String file) {
+        this(file, null);
+    }
+
+    /**
+     * Constructs a new ParserXml object that drops the workers the given filter has already seen.
+     *
+     * @param file   the file path of the XML file to be parsed.
+     * @param filter the filter of duplicate workers, or null to keep every worker.
+     */
+    public ParserXml(String file, DuplicateFilter filter) {
         this.file = file;
+        this.filter = filter;
     }
 
     /**
-     * Parses worker data from the XML file specified in the file field.
+     * Parses worker data from the XML file specified in the file field with a streaming StAX reader.
      * Returns a list of Worker objects with the parsed data.
      *
      * @return a list of Worker objects with the parsed data, or null if there is an error parsing the XML file.
      */
     public List<Worker> parseWorkersFromXML() {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(this.file), 1 << 16)) {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+            try {
+                return numerate(parseWorkers(reader));
+            } finally {
+                reader.close();
+            }
+        } catch (Exception e) {
+            Console.err("Неверные данные в xml файле!");
+            return null;
+        }
+    }
+
+    /**
+     * Parses worker data from the XML file specified in the file field by building a full DOM tree.
+     * This is the fallback mode, it needs memory proportional to the size of the file.
+     *
+     * @return a list of Worker objects with the parsed data, or null if there is an error parsing the XML file.
+     */
+    public List<Worker> parseWorkersFromXMLDom() {
         File xmlFile = new File(this.file);
         DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
         DocumentBuilder dBuilder;
@@ -56,9 +92,9 @@ public class ParserXml {
             NodeList nodeList = doc.getElementsByTagName("worker");
             List<Worker> workerList = new ArrayList<>();
             for (int i = 0; i < nodeList.getLength(); i++) {
-                workerList.add(getWorker(nodeList.item(i)));
+                keep(workerList, getWorker(nodeList.item(i)));
             }
-            return workerList;
+            return numerate(workerList);
         } catch (Exception e) {
             Console.err("Неверные данные в xml файле!");
             return null;
@@ -66,6 +102,52 @@ public class ParserXml {
 
     }
 
+    /**
+     * Reads every worker element from the given StAX reader. Each worker is built as soon as its
+     * closing tag is reached, the reader never keeps more than one record in memory. A worker the filter of
+     * the parser has already seen is dropped there and never added to the list.
+     * The workers are not numbered yet, see {@link #numerate(List)}.
+     *
+     * @param reader the StAX reader positioned before the first worker element.
+     * @return a list of Worker objects in document order.
+     * @throws XMLStreamException if the XML is not well-formed.
+     * @throws InputException     if a record does not pass validation.
+     */
+    List<Worker> parseWorkers(XMLStreamReader reader) throws XMLStreamException, InputException {
+        List<Worker> workerList = new ArrayList<>();
+        WorkerFields fields = null;
+        String section = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String tag = reader.getLocalName();
+                if (tag.equals("worker")) {
+                    fields = new WorkerFields();
+                    section = "worker";
+                } else if (fields != null) {
+                    if (tag.equals("coordinates") || tag.equals("person") || tag.equals("location")) {
+                        section = tag;
+                    } else {
+                        String text = reader.getElementText();
+                        fields.set(section, tag, text.isEmpty() ? null : text);
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && fields != null) {
+                String tag = reader.getLocalName();
+                if (tag.equals("worker")) {
+                    keep(workerList, buildWorker(fields));
+                    fields = null;
+                    section = null;
+                } else if (tag.equals("location")) {
+                    section = "person";
+                } else if (tag.equals("coordinates") || tag.equals("person")) {
+                    section = "worker";
+                }
+            }
+        }
+        return workerList;
+    }
+
     /**
      * Extracts worker data from the specified XML node and creates a new Worker object with the data.
      *
@@ -76,15 +158,25 @@ public class ParserXml {
     private Worker getWorker(Node node) throws InputException {
         if (node.getNodeType() == Node.ELEMENT_NODE) {
             Element element = (Element) node;
-            String name = getTagValue("name", element);
-            if (!containsOnlyDigitsOrLetters(name, false)) throw new InputException();
-            Coordinates coordinates = getCoordinates(element);
-            Double salary = Double.parseDouble(getTagValue("salary", element));
-            if (salary <= 0) throw new InputException();
-            Position position = Position.valueOf(getTagValue("position", element).toUpperCase());
-            Status status = Status.valueOf(getTagValue("status", element).toUpperCase());
-            Person person = getPerson(element);
-            return new Worker(name, coordinates, salary, position, status, person);
+            WorkerFields fields = new WorkerFields();
+            if (element.getElementsByTagName("id").getLength() > 0) fields.id = getTagValue("id", element);
+            fields.name = getTagValue("name", element);
+            Element coordinatesElement = (Element) element.getElementsByTagName("coordinates").item(0);
+            fields.x = getTagValue("x", coordinatesElement);
+            fields.y = getTagValue("y", coordinatesElement);
+            fields.salary = getTagValue("salary", element);
+            fields.position = getTagValue("position", element);
+            fields.status = getTagValue("status", element);
+            Element personElement = (Element) element.getElementsByTagName("person").item(0);
+            fields.birthday = getTagValue("birthday", personElement);
+            fields.height = getTagValue("height", personElement);
+            fields.passportID = getTagValue("passportID", personElement);
+            Element locationElement = (Element) personElement.getElementsByTagName("location").item(0);
+            fields.locationName = getTagValue("name", locationElement);
+            fields.locationX = getTagValue("x", locationElement);
+            fields.locationY = getTagValue("y", locationElement);
+            fields.locationZ = getTagValue("z", locationElement);
+            return buildWorker(fields);
         }
         return null;
 
@@ -92,53 +184,73 @@ public class ParserXml {
     }
 
     /**
-     * Extracts Coordinates data from the specified XML element and creates a new Coordinates object with the data.
+     * Validates the raw values of one worker record and creates a new Worker object from them.
+     * Both the StAX and the DOM paths go through this method, so they share the same rules.
      *
-     * @param element the XML element containing the Coordinates data.
-     * @return a new Coordinates object with the extracted data.
-     * @throws InputException if the extracted data is invalid.
+     * @param fields the raw values of the record.
+     * @return a new Worker object with the parsed data.
+     * @throws InputException if the data is invalid or a field is missing.
+     */
+    private Worker buildWorker(WorkerFields fields) throws InputException {
+        int id = fields.id == null ? 0 : Integer.parseInt(fields.id);
+        if (id < 0) throw new InputException();
+        String name = require(fields.name);
+        if (!Validators.isValidName(name)) throw new InputException();
+        int x = Integer.parseInt(require(fields.x));
+        if (!Validators.isValidX(x)) throw new InputException();
+        int y = Integer.parseInt(require(fields.y));
+        if (!Validators.isValidY(y)) throw new InputException();
+        Coordinates coordinates = new Coordinates(x, y);
+        Double salary = Double.parseDouble(require(fields.salary));
+        if (!Validators.isValidSalary(salary)) throw new InputException();
+        Position position = Position.valueOf(require(fields.position).toUpperCase());
+        Status status = Status.valueOf(require(fields.status).toUpperCase());
+        LocalDateTime birthday = getLocalDateTime(require(fields.birthday));
+        long height = Long.parseLong(require(fields.height));
+        if (!Validators.isValidHeight(height)) throw new InputException();
+        String passportID = require(fields.passportID);
+        if (!Validators.isValidPassportID(passportID)) throw new InputException();
+        Location location = new Location(Float.parseFloat(require(fields.locationX)), Long.parseLong(require(fields.locationY)),
+                Integer.parseInt(require(fields.locationZ)), require(fields.locationName));
+        Person person = new Person(birthday, height, passportID, location);
+        return new Worker(id, name, coordinates, salary, position, status, person);
+    }
+
+    /**
+     * Adds the worker to the list unless the filter of the parser has already seen an equal one.
      */
-    private Coordinates getCoordinates(Element element) throws InputException {
-        Element coordinatesElement = (Element) element.getElementsByTagName("coordinates").item(0);
-        int x = Integer.parseInt(getTagValue("x", coordinatesElement));
-        if (x > 468) throw new InputException();
-        int y = Integer.parseInt(getTagValue("y", coordinatesElement));
-        if (y <= -922) throw new InputException();
-        return new Coordinates(x, y);
+    private void keep(List<Worker> workerList, Worker worker) {
+        if (filter == null || filter.accept(worker)) workerList.add(worker);
     }
 
     /**
-     * Returns a new Person object parsed from the input Element.
+     * Gives IDs in document order to the parsed workers saved without one. Workers that were saved
+     * with an ID keep it and the ID counter of {@link Worker} is moved past the largest of them. Parsing does not
+     * touch the counter, so chunks of a file can be parsed independently and numbered afterwards.
      *
-     * @param element the input Element to be parsed.
-     * @return a new Person object.
-     * @throws InputException if the height is greater than 350 or the passport ID is not exactly 6 characters long.
+     * @param workers the parsed workers in document order.
+     * @return the same list.
      */
-    private Person getPerson(Element element) throws InputException {
-
-        Element personElement = (Element) element.getElementsByTagName("person").item(0);
-        LocalDateTime birthday = getLocalDateTime(getTagValue("birthday", personElement));
-        long height = Long.parseLong(getTagValue("height", personElement));
-        if (height > 350) throw new InputException();
-        String passportID = getTagValue("passportID", personElement);
-        if (passportID.length() != 6) throw new InputException();
-        Location location = getLocation(personElement);
-        return new Person(birthday, height, passportID, location);
+    static List<Worker> numerate(List<Worker> workers) {
+        for (Worker worker : workers) {
+            Worker.reserveId(worker.getID());
+        }
+        for (Worker worker : workers) {
+            if (worker.getID() == 0) worker.setID(Worker.nextId());
+        }
+        return workers;
     }
 
     /**
-     * Returns a new Location object parsed from the input Element.
+     * Checks that a field was present in the record.
      *
-     * @param element the input Element to be parsed.
-     * @return a new Location object.
+     * @param value the raw value of the field.
+     * @return the same value.
+     * @throws InputException if the field is missing or empty.
      */
-    private Location getLocation(Element element) {
-        Element locationElement = (Element) element.getElementsByTagName("location").item(0);
-        String name = getTagValue("name", locationElement);
-        float x = Float.parseFloat(getTagValue("x", locationElement));
-        long y = Long.parseLong(getTagValue("y", locationElement));
-        int z = Integer.parseInt(getTagValue("z", locationElement));
-        return new Location(x, y, z, name);
+    private static String require(String value) throws InputException {
+        if (value == null) throw new InputException();
+        return value;
     }
 
     /**
@@ -154,6 +266,74 @@ public class ParserXml {
         return node.getNodeValue();
     }
 
+    /**
+     * Raw text values of one worker record, collected before validation.
+     */
+    private static class WorkerFields {
+        String id;
+        String name;
+        String x;
+        String y;
+        String salary;
+        String position;
+        String status;
+        String birthday;
+        String height;
+        String passportID;
+        String locationName;
+        String locationX;
+        String locationY;
+        String locationZ;
+
+        /**
+         * Stores the value of a leaf element found in the given section of the record.
+         *
+         * @param section the enclosing element: worker, coordinates, person or location.
+         * @param tag     the name of the leaf element.
+         * @param value   the text of the element, or null if it is empty.
+         */
+        void set(String section, String tag, String value) {
+            switch (section) {
+                case "worker" -> {
+                    switch (tag) {
+                        case "id" -> id = value;
+                        case "name" -> name = value;
+                        case "salary" -> salary = value;
+                        case "position" -> position = value;
+                        case "status" -> status = value;
+                        default -> {
+                        }
+                    }
+                }
+                case "coordinates" -> {
+                    if (tag.equals("x")) x = value;
+                    else if (tag.equals("y")) y = value;
+                }
+                case "person" -> {
+                    switch (tag) {
+                        case "birthday" -> birthday = value;
+                        case "height" -> height = value;
+                        case "passportID" -> passportID = value;
+                        default -> {
+                        }
+                    }
+                }
+                case "location" -> {
+                    switch (tag) {
+                        case "name" -> locationName = value;
+                        case "x" -> locationX = value;
+                        case "y" -> locationY = value;
+                        case "z" -> locationZ = value;
+                        default -> {
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
     /**
      * Returns a LocalDateTime object parsed from the input date string.
      *
@@ -162,8 +342,7 @@ public class ParserXml {
      */
     public LocalDateTime getLocalDateTime(String dateStr) {
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd", new Locale("ru", "Ru"));
-            LocalDateTime bd = LocalDate.parse(dateStr, formatter).atStartOfDay();
+            LocalDateTime bd = DateCodec.parse(dateStr);
             if (bd.isAfter(LocalDate.now().atStartOfDay())) throw new WrongArgumentsException();
             return bd;
         } catch (WrongArgumentsException e) {
@@ -0,0 +1,245 @@
+/**
+ * The PassportIndex class finds the workers of the collection by their passport ID in constant time. It wraps the
+ * storage engine like {@link SortedViews} does and passes every call through to it. The index is built the first
+ * time a passport ID is looked up and from then on every put and remove updates it. It also holds the workers still
+ * in a {@link LazySnapshot}: their passport IDs are read from the records without decoding the workers, so building
+ * the index leaves the snapshot attached.
+ * <p>
+ * A passport ID has six digits, so it is kept as an {@code int} key of an {@link IntIntMap} that maps it to the ID of
+ * the latest worker with that passport; a second map links the ID of each worker to the ID of the previous one with
+ * the same passport, and a third one keeps the passport of each ID, so a worker can be unlinked by its ID alone.
+ * The collection does not let two workers entered at the prompt share a passport, but a loaded file may already
+ * contain such workers, and all of them are found. Workers whose passport ID is not six digits are not indexed.
+ */
+package support;
+
+import data.Status;
+import data.Worker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+
+public class PassportIndex implements WorkerStore {
+    /**
+     * The ID returned when no worker has the passport.
+     */
+    public static final int NO_ID = -1;
+
+    private final WorkerStore store;
+    private final IntIntMap latest = new IntIntMap();
+    private final IntIntMap previous = new IntIntMap();
+    private final IntIntMap keys = new IntIntMap();
+    private boolean built;
+
+    /**
+     * Wraps the given store.
+     *
+     * @param store the store that keeps the workers
+     */
+    public PassportIndex(WorkerStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Checks whether the index has been built, so it can be read under the read lock of the collection.
+     *
+     * @return true if the index is kept up to date
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Builds the index from the workers of the store and the pending workers of the snapshot. It must be called
+     * under the write lock of the collection before the first lookup. If a record of the snapshot is damaged,
+     * the index stays unbuilt.
+     *
+     * @param snapshot the snapshot attached to the collection, or null
+     * @throws IOException if a record of the snapshot is damaged
+     */
+    public void build(LazySnapshot snapshot) throws IOException {
+        if (built) return;
+        try {
+            for (Worker worker : store.values()) {
+                link(worker.getID(), passportKey(worker));
+            }
+            if (snapshot != null) snapshot.walkPassports((id, passportID) -> link(id, key(passportID)));
+        } catch (IOException | RuntimeException e) {
+            latest.clear();
+            previous.clear();
+            keys.clear();
+            throw e;
+        }
+        built = true;
+    }
+
+    /**
+     * Returns the IDs of the workers with the given passport ID, the latest first. Some of them may still be only
+     * in the snapshot.
+     *
+     * @param passportID the passport ID
+     * @return the IDs of the workers with the passport ID, empty if there are none
+     * @throws IllegalStateException if the index has not been built
+     */
+    public ArrayList<Integer> find(String passportID) {
+        requireBuilt();
+        ArrayList<Integer> found = new ArrayList<>(1);
+        int key = key(passportID);
+        if (key == NO_ID) return found;
+        for (int id = latest.get(key, NO_ID); id != NO_ID; id = previous.get(id, NO_ID)) {
+            found.add(id);
+        }
+        return found;
+    }
+
+    /**
+     * Returns the ID of a worker other than the given one that has the passport ID.
+     *
+     * @param passportID the passport ID
+     * @param except     the ID of the worker that may have the passport ID
+     * @return the ID of another worker with the passport ID, or {@link #NO_ID} if there is none
+     * @throws IllegalStateException if the index has not been built
+     */
+    public int holder(String passportID, int except) {
+        requireBuilt();
+        int key = key(passportID);
+        if (key == NO_ID) return NO_ID;
+        for (int id = latest.get(key, NO_ID); id != NO_ID; id = previous.get(id, NO_ID)) {
+            if (id != except) return id;
+        }
+        return NO_ID;
+    }
+
+    /**
+     * Returns the passport ID as a number, or {@link #NO_ID} if it is not six digits.
+     */
+    private static int key(String passportID) {
+        return passportID != null && Validators.isValidPassportID(passportID) ? Integer.parseInt(passportID) : NO_ID;
+    }
+
+    private void requireBuilt() {
+        if (!built) throw new IllegalStateException("индекс паспортов не построен");
+    }
+
+    private void link(int id, int key) {
+        if (key == NO_ID) return;
+        int last = latest.get(key, NO_ID);
+        if (last != NO_ID) previous.put(id, last);
+        latest.put(key, id);
+        keys.put(id, key);
+    }
+
+    private void unlink(int id) {
+        int key = keys.get(id, NO_ID);
+        if (key == NO_ID) return;
+        keys.remove(id);
+        int before = previous.get(id, NO_ID);
+        previous.remove(id);
+        int next = latest.get(key, NO_ID);
+        if (next == id) {
+            if (before == NO_ID) latest.remove(key);
+            else latest.put(key, before);
+            return;
+        }
+        while (next != NO_ID) {
+            int current = previous.get(next, NO_ID);
+            if (current == id) {
+                if (before == NO_ID) previous.remove(next);
+                else previous.put(next, before);
+                return;
+            }
+            next = current;
+        }
+    }
+
+    private static int passportKey(Worker worker) {
+        return worker.getPerson() == null ? NO_ID : key(worker.getPerson().getPassportID());
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return store.contains(id);
+    }
+
+    @Override
+    public Worker get(int id) {
+        return store.get(id);
+    }
+
+    /**
+     * Puts the worker into the store. The passport of a worker with the same ID is replaced, whether that worker
+     * was in the store or still in the snapshot.
+     */
+    @Override
+    public void put(Worker worker) {
+        if (built) {
+            unlink(worker.getID());
+            link(worker.getID(), passportKey(worker));
+        }
+        store.put(worker);
+    }
+
+    /**
+     * Removes the worker from the store and its passport from the index, also when the worker was still only in
+     * the snapshot.
+     */
+    @Override
+    public Worker remove(int id) {
+        if (built) unlink(id);
+        return store.remove(id);
+    }
+
+    @Override
+    public void removeAll(int[] ids) {
+        if (built) {
+            for (int id : ids) {
+                unlink(id);
+            }
+        }
+        store.removeAll(ids);
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+        latest.clear();
+        previous.clear();
+        keys.clear();
+    }
+
+    @Override
+    public Collection<Worker> values() {
+        return store.values();
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return store.countByStatus(status);
+    }
+
+    @Override
+    public ArrayList<Worker> greaterThanStatus(Status status) {
+        return store.greaterThanStatus(status);
+    }
+
+    @Override
+    public double minSalary() {
+        return store.minSalary();
+    }
+
+    @Override
+    public ArrayList<Worker> salaryRange(double from, double to) {
+        return store.salaryRange(from, to);
+    }
+
+    @Override
+    public Worker salaryPercentile(double percentile) {
+        return store.salaryPercentile(percentile);
+    }
+}
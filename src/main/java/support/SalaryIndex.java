@@ -0,0 +1,288 @@
+/**
+ * The SalaryIndex class is a secondary index of the collection ordered by salary. It is an order-statistics
+ * treap kept in primitive arrays: every node stores a {@code double} salary and the worker ID, which breaks
+ * ties between equal salaries, and the size of its subtree. Insertion, removal, minimum, maximum and the
+ * k-th smallest salary take O(log n), a salary range of k workers is read in O(log n + k).
+ */
+package support;
+
+import data.Worker;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SalaryIndex {
+    private static final int NIL = 0;
+
+    private double[] salary = new double[16];
+    private int[] id = new int[16];
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] priority = new int[16];
+    private int[] size = new int[16];
+    private int root = NIL;
+    private int used = 1;
+    private int free = NIL;
+    private final Random random = new Random();
+
+    private int splitLeft;
+    private int splitRight;
+
+    /**
+     * Adds the salary of the worker to the index.
+     *
+     * @param worker the worker added to the collection
+     */
+    public void add(Worker worker) {
+        add(worker.getSalary(), worker.getID());
+    }
+
+    /**
+     * Adds the salary of the worker with the given ID to the index.
+     *
+     * @param salary the salary of the worker
+     * @param id     the ID of the worker
+     */
+    public void add(double salary, int id) {
+        int node = allocate(salary, id);
+        split(root, salary, id);
+        root = merge(merge(splitLeft, node), splitRight);
+    }
+
+    /**
+     * Removes the salary of the worker from the index.
+     *
+     * @param worker the worker removed from the collection
+     */
+    public void remove(Worker worker) {
+        remove(worker.getSalary(), worker.getID());
+    }
+
+    /**
+     * Removes the salary of the worker with the given ID from the index.
+     *
+     * @param salary the salary the worker was added with
+     * @param id     the ID of the worker
+     */
+    public void remove(double salary, int id) {
+        root = remove(root, salary, id);
+    }
+
+    /**
+     * Removes all salaries from the index.
+     */
+    public void clear() {
+        root = NIL;
+        used = 1;
+        free = NIL;
+    }
+
+    /**
+     * Returns the number of salaries in the index.
+     *
+     * @return the number of indexed workers
+     */
+    public int size() {
+        return size[root];
+    }
+
+    /**
+     * Returns the smallest salary of the collection.
+     *
+     * @return the smallest salary, or NaN if the index is empty
+     */
+    public double minSalary() {
+        if (root == NIL) return Double.NaN;
+        int node = root;
+        while (left[node] != NIL) node = left[node];
+        return salary[node];
+    }
+
+    /**
+     * Returns the largest salary of the collection.
+     *
+     * @return the largest salary, or NaN if the index is empty
+     */
+    public double maxSalary() {
+        if (root == NIL) return Double.NaN;
+        int node = root;
+        while (right[node] != NIL) node = right[node];
+        return salary[node];
+    }
+
+    /**
+     * Returns the ID of the worker with the k-th smallest salary.
+     *
+     * @param k the rank of the salary, starting from 0
+     * @return the ID of the worker
+     * @throws IndexOutOfBoundsException if k is not less than the size of the index
+     */
+    public int select(int k) {
+        if (k < 0 || k >= size()) throw new IndexOutOfBoundsException(k);
+        int node = root;
+        while (true) {
+            int leftSize = size[left[node]];
+            if (k < leftSize) {
+                node = left[node];
+            } else if (k == leftSize) {
+                return id[node];
+            } else {
+                k -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * Returns the ID of the worker whose salary is the given percentile of all salaries.
+     * The nearest-rank method is used, so the result is always a salary of the collection.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the ID of the worker, or -1 if the index is empty
+     */
+    public int percentile(double percentile) {
+        int count = size();
+        if (count == 0) return -1;
+        int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+        return select(Math.max(0, Math.min(count - 1, rank)));
+    }
+
+    /**
+     * Returns the IDs of the workers with a salary between the given bounds, in ascending order of salary.
+     *
+     * @param from the lower bound, inclusive
+     * @param to   the upper bound, inclusive
+     * @return the IDs of the workers in the range
+     */
+    public int[] range(double from, double to) {
+        int count = countLess(to, true) - countLess(from, false);
+        if (count <= 0) return new int[0];
+        int[] result = new int[count];
+        collect(root, from, to, result, 0);
+        return result;
+    }
+
+    /**
+     * Counts the salaries less than the given value.
+     *
+     * @param value     the value to compare against
+     * @param inclusive true to count the salaries equal to the value as well
+     * @return the number of salaries
+     */
+    private int countLess(double value, boolean inclusive) {
+        int count = 0;
+        int node = root;
+        while (node != NIL) {
+            int compare = Double.compare(salary[node], value);
+            if (compare < 0 || (inclusive && compare == 0)) {
+                count += size[left[node]] + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return count;
+    }
+
+    private int collect(int node, double from, double to, int[] result, int position) {
+        if (node == NIL) return position;
+        boolean aboveFrom = Double.compare(salary[node], from) >= 0;
+        boolean belowTo = Double.compare(salary[node], to) <= 0;
+        if (aboveFrom) position = collect(left[node], from, to, result, position);
+        if (aboveFrom && belowTo) result[position++] = id[node];
+        if (belowTo) position = collect(right[node], from, to, result, position);
+        return position;
+    }
+
+    private static int compare(double salaryA, int idA, double salaryB, int idB) {
+        int compare = Double.compare(salaryA, salaryB);
+        return compare != 0 ? compare : Integer.compare(idA, idB);
+    }
+
+    /**
+     * Splits the subtree into the nodes less than the given key and the rest,
+     * the results are left in splitLeft and splitRight.
+     */
+    private void split(int node, double key, int keyID) {
+        if (node == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+        } else if (compare(salary[node], id[node], key, keyID) < 0) {
+            split(right[node], key, keyID);
+            right[node] = splitLeft;
+            update(node);
+            splitLeft = node;
+        } else {
+            split(left[node], key, keyID);
+            left[node] = splitRight;
+            update(node);
+            splitRight = node;
+        }
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+
+    private int remove(int node, double key, int keyID) {
+        if (node == NIL) return NIL;
+        int compare = compare(key, keyID, salary[node], id[node]);
+        if (compare < 0) {
+            left[node] = remove(left[node], key, keyID);
+        } else if (compare > 0) {
+            right[node] = remove(right[node], key, keyID);
+        } else {
+            int merged = merge(left[node], right[node]);
+            release(node);
+            return merged;
+        }
+        update(node);
+        return node;
+    }
+
+    private void update(int node) {
+        size[node] = size[left[node]] + size[right[node]] + 1;
+    }
+
+    private int allocate(double key, int keyID) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = right[node];
+        } else {
+            if (used == id.length) grow();
+            node = used++;
+        }
+        salary[node] = key;
+        id[node] = keyID;
+        left[node] = NIL;
+        right[node] = NIL;
+        priority[node] = random.nextInt();
+        size[node] = 1;
+        return node;
+    }
+
+    private void release(int node) {
+        right[node] = free;
+        free = node;
+    }
+
+    private void grow() {
+        int capacity = id.length * 2;
+        salary = Arrays.copyOf(salary, capacity);
+        id = Arrays.copyOf(id, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        size = Arrays.copyOf(size, capacity);
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * The ScriptSource class reads a script in a single pass and splits it into commands and data. A line whose
+ * first word is the name of a command, written in the same case, is a command, any other line is data for the
+ * prompts of the commands, so a worker named "Show" is not taken for the show command.
+ * Commands are taken in order by {@link #nextCommand()}, data lines in order by {@link #nextLine()}, whatever
+ * their places in the file are: when one kind of line is asked for, the lines of the other kind read on the
+ * way are queued in memory until they are asked for. A script of commands followed by their data is therefore
+ * read line by line and never kept in memory.
+ */
+package support;
+
+import commands.Command;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+
+public class ScriptSource implements LineSource, Closeable {
+    private final BufferedReader reader;
+    private final CommandControl commandControl;
+    private final ArrayDeque<String> commands = new ArrayDeque<>();
+    private final ArrayDeque<String> data = new ArrayDeque<>();
+
+    /**
+     * Constructs a ScriptSource over the given reader.
+     *
+     * @param reader         the reader of the script
+     * @param commandControl the CommandControl used to recognize the commands
+     */
+    public ScriptSource(BufferedReader reader, CommandControl commandControl) {
+        this.reader = reader;
+        this.commandControl = commandControl;
+    }
+
+    /**
+     * Returns the next command of the script.
+     *
+     * @return the trimmed command line, or null if there are no more commands
+     * @throws UncheckedIOException if the script cannot be read
+     */
+    public String nextCommand() {
+        if (!commands.isEmpty()) return commands.poll();
+        String line;
+        while ((line = read()) != null) {
+            String trimmed = line.trim();
+            if (isCommand(trimmed)) return trimmed;
+            data.add(line);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the next data line of the script.
+     *
+     * @return the data line
+     * @throws NoSuchElementException if there are no more data lines
+     * @throws UncheckedIOException   if the script cannot be read
+     */
+    @Override
+    public String nextLine() {
+        if (!data.isEmpty()) return data.poll();
+        String line;
+        while ((line = read()) != null) {
+            String trimmed = line.trim();
+            if (!isCommand(trimmed)) return line;
+            commands.add(trimmed);
+        }
+        throw new NoSuchElementException("в скрипте закончились данные");
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean isCommand(String trimmed) {
+        int end = CommandControl.nameEnd(trimmed);
+        Command command = commandControl.find(trimmed, 0, end);
+        return command != null && trimmed.regionMatches(0, command.getName(), 0, end);
+    }
+
+    private String read() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
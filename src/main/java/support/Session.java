@@ -0,0 +1,106 @@
+/**
+ * The Session class serves one client of the {@link CollectionServer}. The client talks to the collection the way
+ * the user talks to the console: it sends command lines and answers to the prompts, one per line, and receives
+ * the same text the console would print. Blank lines between commands are skipped, so a client may also end each
+ * command and its answers with a blank line, as the {@link NioCollectionServer} requires. Every reply ends with the ">>" prompt at the start of a line, so a client
+ * can send the next command as soon as it sees it. The session has its own CommunicationControl and its own set
+ * of commands, without the ones that touch files, and sends the output of the thread that runs it to the client.
+ */
+package support;
+
+import exceptions.InputException;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+public class Session implements Runnable {
+    private final Socket socket;
+    private final CollectionControl collectionControl;
+    private CommunicationControl communicationControl;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a session for the given connection.
+     *
+     * @param socket            the connection of the client
+     * @param collectionControl the collection shared by all sessions
+     */
+    public Session(Socket socket, CollectionControl collectionControl) {
+        this.socket = socket;
+        this.collectionControl = collectionControl;
+    }
+
+    /**
+     * Runs the commands of the client until it sends exit or closes the connection.
+     */
+    @Override
+    public void run() {
+        try (socket) {
+            PrintStream output = new PrintStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 13), false, StandardCharsets.UTF_8);
+            Scanner scanner = new Scanner(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            LineSource input = () -> nextLine(scanner, output);
+            communicationControl = new CommunicationControl(scanner, input);
+            CommandControl commandControl = CommandControl.createRemote(collectionControl, communicationControl, this::close);
+            Console.setOutput(output);
+            try {
+                serve(input, commandControl);
+            } finally {
+                if (collectionControl.inBatch(communicationControl)) collectionControl.rollbackBatch(communicationControl);
+                output.flush();
+                Console.resetOutput();
+            }
+        } catch (IOException e) {
+            Console.err("сессия " + socket.getRemoteSocketAddress() + " прервана: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ends the session after the current command.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Sends the output to the client and reads its next line. When the client is gone, the prompts stop repeating
+     * the question, as they do at the end of a script, so the running command fails and the session ends.
+     */
+    private String nextLine(Scanner scanner, PrintStream output) {
+        output.flush();
+        if (!closed && scanner.hasNextLine()) return scanner.nextLine();
+        if (!closed) {
+            closed = true;
+            communicationControl.setLoop(false);
+        }
+        throw new NoSuchElementException("клиент отключился");
+    }
+
+    /**
+     * Runs the commands of the client one by one. A command that fails is reported to the client and the session
+     * goes on with the next one; it ends only when the client is gone or has sent exit.
+     */
+    private void serve(LineSource input, CommandControl commandControl) {
+        while (!closed) {
+            String line;
+            try {
+                Console.write(">>");
+                do {
+                    line = input.nextLine();
+                } while (line.isBlank());
+            } catch (NoSuchElementException e) {
+                return;
+            }
+            try {
+                commandControl.execute(line.trim());
+            } catch (InputException e) {
+                Console.err("Введенной команды не существет. Введите командочку help");
+            } catch (RuntimeException e) {
+                if (closed) return;
+                Console.err("команда прервана: " + e.getMessage());
+            }
+        }
+    }
+}
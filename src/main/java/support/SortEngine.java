@@ -0,0 +1,185 @@
+/**
+ * The SortEngine class sorts the workers and the persons of the collection. Large inputs are sorted with
+ * {@link Arrays#parallelSort} on all cores. Persons are ordered by their birthday: when every birthday is the start
+ * of a day, as the loaders and the prompt make them, the day and the position of each person are packed into one
+ * {@code long} and the key array is sorted instead of the objects. When only the first or the last few elements are
+ * wanted, a heap of that size is kept while the elements go by, so nothing else is sorted or copied.
+ * <p>
+ * All orders are stable: equal elements keep the order in which they were given, and the first or last k elements
+ * are exactly the ones a full sort would put there. A missing birthday comes before all others.
+ */
+package support;
+
+import data.Person;
+import data.Worker;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+public final class SortEngine {
+    /**
+     * Below this size a sort runs on the calling thread; splitting smaller arrays costs more than it saves.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+    private static final long NO_BIRTHDAY = Integer.MIN_VALUE;
+    private static final Comparator<Person> BY_BIRTHDAY =
+            Comparator.comparing(Person::getBirthday, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private SortEngine() {
+    }
+
+    /**
+     * Sorts the workers in the given order.
+     *
+     * @param workers the workers to sort
+     * @param order   the order of the workers
+     * @return a new array with the sorted workers
+     */
+    public static Worker[] sortWorkers(Collection<Worker> workers, Comparator<? super Worker> order) {
+        Worker[] sorted = workers.toArray(new Worker[0]);
+        if (sorted.length < PARALLEL_THRESHOLD) Arrays.sort(sorted, order);
+        else Arrays.parallelSort(sorted, order);
+        return sorted;
+    }
+
+    /**
+     * Sorts the persons of the workers by their birthday. Persons with the same birthday are in the order of the IDs
+     * of their workers, as in the birthday view of {@link SortedViews}, so the result does not depend on the order
+     * of the collection. The workers are first put in the order of their IDs by sorting packed keys, and then their
+     * persons are sorted stably.
+     *
+     * @param workers the workers whose persons to sort
+     * @return a new array with the sorted persons
+     */
+    public static Person[] sortPersonsOf(Collection<Worker> workers) {
+        Worker[] unsorted = workers.toArray(new Worker[0]);
+        long[] keys = new long[unsorted.length];
+        for (int i = 0; i < unsorted.length; i++) {
+            keys[i] = (long) unsorted[i].getID() << 32 | i;
+        }
+        if (keys.length < PARALLEL_THRESHOLD) Arrays.sort(keys);
+        else Arrays.parallelSort(keys);
+        ArrayList<Person> persons = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            persons.add(unsorted[(int) key].getPerson());
+        }
+        return sortPersons(persons);
+    }
+
+    /**
+     * Sorts the persons by their birthday.
+     *
+     * @param persons the persons to sort
+     * @return a new array with the sorted persons
+     */
+    public static Person[] sortPersons(Collection<Person> persons) {
+        Person[] sorted = persons.toArray(new Person[0]);
+        long[] keys = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            long day = birthdayKey(sorted[i]);
+            if (day == Long.MAX_VALUE) {
+                if (sorted.length < PARALLEL_THRESHOLD) Arrays.sort(sorted, BY_BIRTHDAY);
+                else Arrays.parallelSort(sorted, BY_BIRTHDAY);
+                return sorted;
+            }
+            keys[i] = day << 32 | i;
+        }
+        if (keys.length < PARALLEL_THRESHOLD) Arrays.sort(keys);
+        else Arrays.parallelSort(keys);
+        Person[] byKey = new Person[sorted.length];
+        for (int i = 0; i < keys.length; i++) {
+            byKey[i] = sorted[(int) keys[i]];
+        }
+        return byKey;
+    }
+
+    /**
+     * Returns the first elements of the sorted order without sorting the others.
+     *
+     * @param elements the elements, in the order that decides between equal ones
+     * @param count    the largest number of elements to return
+     * @param order    the order of the elements
+     * @param <T>      the type of the elements
+     * @return at most count elements, sorted
+     */
+    public static <T> List<T> first(Iterable<T> elements, int count, Comparator<? super T> order) {
+        return select(elements, count, order, false);
+    }
+
+    /**
+     * Returns the last elements of the sorted order without sorting the others.
+     *
+     * @param elements the elements, in the order that decides between equal ones
+     * @param count    the largest number of elements to return
+     * @param order    the order of the elements
+     * @param <T>      the type of the elements
+     * @return at most count elements, sorted
+     */
+    public static <T> List<T> last(Iterable<T> elements, int count, Comparator<? super T> order) {
+        return select(elements, count, order, true);
+    }
+
+    /**
+     * Returns the order of the persons by birthday.
+     *
+     * @return the comparator
+     */
+    public static Comparator<Person> byBirthday() {
+        return BY_BIRTHDAY;
+    }
+
+    /**
+     * Returns the epoch day of the birthday of the person, {@link #NO_BIRTHDAY} if it is missing, or
+     * {@link Long#MAX_VALUE} if the birthday cannot be packed into a key.
+     */
+    private static long birthdayKey(Person person) {
+        LocalDateTime birthday = person.getBirthday();
+        if (birthday == null) return NO_BIRTHDAY;
+        if (!birthday.toLocalTime().equals(LocalTime.MIDNIGHT)) return Long.MAX_VALUE;
+        long day = birthday.toLocalDate().toEpochDay();
+        return day > NO_BIRTHDAY && day <= Integer.MAX_VALUE ? day : Long.MAX_VALUE;
+    }
+
+    /**
+     * Keeps the count smallest (or largest) elements in a heap whose top is the one to drop next. The position
+     * of an element breaks ties, so the result is the same as the head (or tail) of a stable sort.
+     */
+    private static <T> List<T> select(Iterable<T> elements, int count, Comparator<? super T> order, boolean largest) {
+        if (count <= 0) return new ArrayList<>();
+        Comparator<Ranked<T>> ranked = Comparator.<Ranked<T>, T>comparing(r -> r.element, order)
+                .thenComparingLong(r -> r.position);
+        PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(Math.min(count, 1 << 16) + 1, largest ? ranked : ranked.reversed());
+        long position = 0;
+        for (T element : elements) {
+            if (heap.size() < count) {
+                heap.add(new Ranked<>(element, position));
+            } else {
+                // an element equal to the top comes later, so it is larger: it only replaces the top when taking the largest
+                int compare = order.compare(element, heap.peek().element);
+                if (largest ? compare >= 0 : compare < 0) {
+                    heap.poll();
+                    heap.add(new Ranked<>(element, position));
+                }
+            }
+            position++;
+        }
+        ArrayList<Ranked<T>> kept = new ArrayList<>(heap);
+        kept.sort(ranked);
+        ArrayList<T> result = new ArrayList<>(kept.size());
+        for (Ranked<T> entry : kept) {
+            result.add(entry.element);
+        }
+        return result;
+    }
+
+    private static final class Ranked<T> {
+        final T element;
+        final long position;
+
+        Ranked(T element, long position) {
+            this.element = element;
+            this.position = position;
+        }
+    }
+}
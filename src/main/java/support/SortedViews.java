@@ -0,0 +1,210 @@
+/**
+ * The SortedViews class keeps the collection in sorted order for the commands that read it in order. It wraps the
+ * storage engine and passes every call through to it; a view of an {@link Order} is built the first time it is
+ * asked for and from then on every put and remove updates it in O(log n). Reading a view in order is a walk along
+ * a tree, and a walk can continue after any worker it has passed, so a client that pages through a view never
+ * sorts anything again.
+ * <p>
+ * A view holds the workers of the collection itself, so a view on the columnar store keeps as many Worker objects
+ * as the map store would. The views that were never asked for cost nothing.
+ */
+package support;
+
+import data.Status;
+import data.Worker;
+
+import java.util.*;
+
+public class SortedViews implements WorkerStore {
+    private final WorkerStore store;
+    private final EnumMap<Order, TreeSet<Worker>> views = new EnumMap<>(Order.class);
+
+    /**
+     * The orders a view can keep. Workers that are equal in an order are ordered by ID.
+     */
+    public enum Order {
+        /**
+         * The natural order of the workers, by name.
+         */
+        NAME(Comparator.naturalOrder()),
+        /**
+         * The order of the persons of the workers, by birthday.
+         */
+        BIRTHDAY(Comparator.comparing(Worker::getPerson, SortEngine.byBirthday())),
+        /**
+         * By salary, the lowest first.
+         */
+        SALARY(Comparator.comparing(Worker::getSalary));
+
+        private final Comparator<Worker> comparator;
+
+        Order(Comparator<Worker> order) {
+            this.comparator = order.thenComparingInt(Worker::getID);
+        }
+
+        /**
+         * Returns the order with the ID breaking ties.
+         *
+         * @return the comparator of the order
+         */
+        public Comparator<Worker> comparator() {
+            return comparator;
+        }
+    }
+
+    /**
+     * Wraps the given store.
+     *
+     * @param store the store that keeps the workers
+     */
+    public SortedViews(WorkerStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Checks whether the view of the order has been built.
+     *
+     * @param order the order
+     * @return true if the view is kept up to date
+     */
+    public boolean hasView(Order order) {
+        return views.containsKey(order);
+    }
+
+    /**
+     * Returns the view of the order, building it from the workers of the store if it was not built yet.
+     * Building must happen under the write lock of the collection; reading a built view needs only the read lock.
+     *
+     * @param order the order
+     * @return the workers of the collection in that order, read-only
+     */
+    public NavigableSet<Worker> view(Order order) {
+        return Collections.unmodifiableNavigableSet(build(order));
+    }
+
+    private TreeSet<Worker> build(Order order) {
+        TreeSet<Worker> view = views.get(order);
+        if (view == null) {
+            view = new TreeSet<>(order.comparator());
+            view.addAll(store.values());
+            views.put(order, view);
+        }
+        return view;
+    }
+
+    /**
+     * Puts the workers back into the store in the given order. The views are not touched, since their order does
+     * not depend on the order of the store.
+     *
+     * @param workers all workers of the store in their new order
+     */
+    public void reorder(Worker[] workers) {
+        store.clear();
+        for (Worker worker : workers) {
+            store.put(worker);
+        }
+    }
+
+    /**
+     * Removes every worker whose name comes after the given one. The workers are split off the end of the view by
+     * name without looking at the others, in O(log n + k); the view is built the first time and kept from then on,
+     * so every later removal takes only the range. The workers are then taken out of the other views and of the
+     * store together. Building the view must happen under the write lock of the collection.
+     *
+     * @param name the name the removed workers are greater than
+     * @return the removed workers
+     */
+    public List<Worker> removeGreater(String name) {
+        NavigableSet<Worker> greater = build(Order.NAME).tailSet(new Worker(Integer.MAX_VALUE, name, null, null, null, null, null, null), false);
+        ArrayList<Worker> removed = new ArrayList<>(greater);
+        greater.clear();
+        int[] ids = new int[removed.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = removed.get(i).getID();
+        }
+        for (Map.Entry<Order, TreeSet<Worker>> view : views.entrySet()) {
+            if (view.getKey() == Order.NAME) continue;
+            for (Worker worker : removed) {
+                view.getValue().remove(worker);
+            }
+        }
+        store.removeAll(ids);
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return store.contains(id);
+    }
+
+    @Override
+    public Worker get(int id) {
+        return store.get(id);
+    }
+
+    @Override
+    public void put(Worker worker) {
+        if (!views.isEmpty()) {
+            Worker previous = store.get(worker.getID());
+            for (TreeSet<Worker> view : views.values()) {
+                if (previous != null) view.remove(previous);
+                view.add(worker);
+            }
+        }
+        store.put(worker);
+    }
+
+    @Override
+    public Worker remove(int id) {
+        Worker worker = store.remove(id);
+        if (worker != null) {
+            for (TreeSet<Worker> view : views.values()) {
+                view.remove(worker);
+            }
+        }
+        return worker;
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+        for (TreeSet<Worker> view : views.values()) {
+            view.clear();
+        }
+    }
+
+    @Override
+    public Collection<Worker> values() {
+        return store.values();
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return store.countByStatus(status);
+    }
+
+    @Override
+    public ArrayList<Worker> greaterThanStatus(Status status) {
+        return store.greaterThanStatus(status);
+    }
+
+    @Override
+    public double minSalary() {
+        return store.minSalary();
+    }
+
+    @Override
+    public ArrayList<Worker> salaryRange(double from, double to) {
+        return store.salaryRange(from, to);
+    }
+
+    @Override
+    public Worker salaryPercentile(double percentile) {
+        return store.salaryPercentile(percentile);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * The StatusIndex class is a secondary index of the collection that keeps the workers in one bucket per
+ * {@link Status}. It is updated by {@link CollectionControl} on every change of the collection, so the status
+ * reports never have to scan the whole collection.
+ */
+package support;
+
+import data.Status;
+import data.Worker;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+
+public class StatusIndex {
+    private final EnumMap<Status, LinkedHashMap<Integer, Worker>> buckets = new EnumMap<>(Status.class);
+
+    /**
+     * Constructs an empty index with a bucket for every status.
+     */
+    public StatusIndex() {
+        for (Status status : Status.values()) {
+            buckets.put(status, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Puts the worker into the bucket of its status.
+     *
+     * @param worker the worker added to the collection
+     */
+    public void add(Worker worker) {
+        buckets.get(worker.getStatus()).put(worker.getID(), worker);
+    }
+
+    /**
+     * Takes the worker out of the bucket of its status.
+     *
+     * @param worker the worker removed from the collection
+     */
+    public void remove(Worker worker) {
+        buckets.get(worker.getStatus()).remove(worker.getID());
+    }
+
+    /**
+     * Empties all buckets.
+     */
+    public void clear() {
+        for (LinkedHashMap<Integer, Worker> bucket : buckets.values()) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * Returns the number of workers with the given status.
+     *
+     * @param status the status
+     * @return the size of the bucket of the status
+     */
+    public int count(Status status) {
+        return buckets.get(status).size();
+    }
+
+    /**
+     * Returns the workers whose status is greater than the given one. The buckets of the greater statuses
+     * are concatenated in the order of the statuses.
+     *
+     * @param status the status to compare against
+     * @return a new list of the workers with a greater status
+     */
+    public ArrayList<Worker> greaterThan(Status status) {
+        Status[] statuses = Status.values();
+        int size = 0;
+        for (int i = status.ordinal() + 1; i < statuses.length; i++) {
+            size += count(statuses[i]);
+        }
+        ArrayList<Worker> workers = new ArrayList<>(size);
+        for (int i = status.ordinal() + 1; i < statuses.length; i++) {
+            workers.addAll(buckets.get(statuses[i]).values());
+        }
+        return workers;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * The StringDictionary class encodes strings as int codes for the columnar store. Every distinct string is kept
+ * once, so a column of repeated names or locations costs four bytes per row. Codes are never reused, the
+ * dictionary is emptied together with the store.
+ */
+package support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+public class StringDictionary {
+    private final HashMap<String, Integer> codes = new HashMap<>();
+    private final ArrayList<String> strings = new ArrayList<>();
+
+    /**
+     * Returns the code of the string, adding the string to the dictionary if it is new.
+     *
+     * @param string the string to encode
+     * @return the code of the string
+     */
+    public int encode(String string) {
+        Integer code = codes.get(string);
+        if (code != null) return code;
+        strings.add(string);
+        codes.put(string, strings.size() - 1);
+        return strings.size() - 1;
+    }
+
+    /**
+     * Returns the string with the given code.
+     *
+     * @param code the code returned by {@link #encode(String)}
+     * @return the string
+     */
+    public String decode(int code) {
+        return strings.get(code);
+    }
+
+    /**
+     * Removes all strings from the dictionary.
+     */
+    public void clear() {
+        codes.clear();
+        strings.clear();
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * The Validators class holds the rules for the fields of a worker. The prompts of CommunicationControl and the XML
+ * loader check the same values with the same methods, so a worker that can be typed in can also be loaded from the
+ * file and the other way round. The checks look at the characters and numbers directly and allocate nothing, which
+ * matters when a large file is loaded and every record goes through them.
+ */
+package support;
+
+public final class Validators {
+    /**
+     * The largest x coordinate of a worker.
+     */
+    public static final int MAX_X = 468;
+    /**
+     * The y coordinate of a worker must be greater than this.
+     */
+    public static final int MIN_Y_EXCLUSIVE = -922;
+    /**
+     * The largest height of a person.
+     */
+    public static final long MAX_HEIGHT = 400;
+    /**
+     * The number of digits in a passport ID.
+     */
+    public static final int PASSPORT_LENGTH = 6;
+
+    private Validators() {
+    }
+
+    /**
+     * Checks that the name is not empty and consists of latin letters only.
+     *
+     * @param name the name
+     * @return true if the name is valid
+     */
+    public static boolean isValidName(String name) {
+        if (name == null || name.isEmpty()) return false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c < 'a' || c > 'z') && (c < 'A' || c > 'Z')) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the string is not empty and consists of the digits 0-9 only.
+     *
+     * @param string the string
+     * @return true if the string is a non-empty run of digits
+     */
+    public static boolean isDigits(String string) {
+        if (string == null || string.isEmpty()) return false;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the passport ID is exactly {@value #PASSPORT_LENGTH} digits.
+     *
+     * @param passportID the passport ID
+     * @return true if the passport ID is valid
+     */
+    public static boolean isValidPassportID(String passportID) {
+        return passportID != null && passportID.length() == PASSPORT_LENGTH && isDigits(passportID);
+    }
+
+    /**
+     * Checks the x coordinate of a worker.
+     *
+     * @param x the coordinate
+     * @return true if x is at most {@value #MAX_X}
+     */
+    public static boolean isValidX(int x) {
+        return x <= MAX_X;
+    }
+
+    /**
+     * Checks the y coordinate of a worker.
+     *
+     * @param y the coordinate
+     * @return true if y is greater than {@value #MIN_Y_EXCLUSIVE}
+     */
+    public static boolean isValidY(int y) {
+        return y > MIN_Y_EXCLUSIVE;
+    }
+
+    /**
+     * Checks the height of a person.
+     *
+     * @param height the height
+     * @return true if the height is positive and at most {@value #MAX_HEIGHT}
+     */
+    public static boolean isValidHeight(long height) {
+        return height > 0 && height <= MAX_HEIGHT;
+    }
+
+    /**
+     * Checks the salary of a worker. NaN is not a valid salary.
+     *
+     * @param salary the salary
+     * @return true if the salary is greater than zero
+     */
+    public static boolean isValidSalary(double salary) {
+        return salary > 0;
+    }
+}
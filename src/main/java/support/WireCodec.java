@@ -0,0 +1,316 @@
+/**
+ * The WireCodec class encodes workers for sending over the network, where every byte counts more than the speed
+ * of random access that {@link WorkerCodec} is built for. Whole numbers are written as varints, seven bits per
+ * byte with the high bit telling that another byte follows; signed ones are zigzag-encoded first, so small negative
+ * numbers stay short. The salary is a raw IEEE double, the position and the status are their ordinals, dates are
+ * seconds since the epoch and strings are a varint length followed by UTF-8. A typical worker takes about a quarter
+ * of the bytes of its {@link data.Worker#toString()} text.
+ * <p>
+ * Every method works on a buffer given by the caller and the encoders allocate nothing: {@link #sizeOf(Worker)}
+ * tells how much room a worker needs, so a sender can check the space left before writing. The decoders build
+ * the objects and their strings and nothing else.
+ */
+package support;
+
+import data.*;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+
+public final class WireCodec {
+    private static final Position[] POSITIONS = Position.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private WireCodec() {
+    }
+
+    /**
+     * Writes the worker with all its nested objects to the buffer.
+     *
+     * @param buffer the buffer to write to
+     * @param worker the worker to write
+     * @throws BufferOverflowException if the buffer has less room than {@link #sizeOf(Worker)}
+     */
+    public static void writeWorker(ByteBuffer buffer, Worker worker) {
+        putVarInt(buffer, worker.getID());
+        putString(buffer, worker.getName());
+        writeCoordinates(buffer, worker.getCoordinates());
+        putVarLong(buffer, zigzag(worker.getCreationDate().toEpochSecond()));
+        buffer.putDouble(worker.getSalary());
+        buffer.put((byte) worker.getPosition().ordinal());
+        buffer.put((byte) worker.getStatus().ordinal());
+        writePerson(buffer, worker.getPerson());
+    }
+
+    /**
+     * Reads a worker written by {@link #writeWorker(ByteBuffer, Worker)}. The creation date is restored
+     * to the second in the zone of this machine.
+     *
+     * @param buffer the buffer positioned at the start of the worker
+     * @return the restored worker
+     * @throws IOException if the data is damaged or cut short
+     */
+    public static Worker readWorker(ByteBuffer buffer) throws IOException {
+        try {
+            int id = getVarInt(buffer);
+            String name = getString(buffer);
+            Coordinates coordinates = readCoordinates(buffer);
+            ZonedDateTime creationDate = ZonedDateTime.ofInstant(Instant.ofEpochSecond(unzigzag(getVarLong(buffer))), ZoneId.systemDefault());
+            double salary = buffer.getDouble();
+            Position position = POSITIONS[buffer.get() & 0xFF];
+            Status status = STATUSES[buffer.get() & 0xFF];
+            return new Worker(id, name, coordinates, creationDate, salary, position, status, readPerson(buffer));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("данные повреждены", e);
+        }
+    }
+
+    /**
+     * Writes the coordinates to the buffer.
+     *
+     * @param buffer      the buffer to write to
+     * @param coordinates the coordinates to write
+     */
+    public static void writeCoordinates(ByteBuffer buffer, Coordinates coordinates) {
+        putVarInt(buffer, zigzag(coordinates.getX()));
+        putVarInt(buffer, zigzag(coordinates.getY()));
+    }
+
+    /**
+     * Reads coordinates written by {@link #writeCoordinates(ByteBuffer, Coordinates)}.
+     *
+     * @param buffer the buffer positioned at the start of the coordinates
+     * @return the restored coordinates
+     * @throws IOException              if the data is damaged
+     * @throws BufferUnderflowException if the data is cut short
+     */
+    public static Coordinates readCoordinates(ByteBuffer buffer) throws IOException {
+        return new Coordinates(unzigzag(getVarInt(buffer)), unzigzag(getVarInt(buffer)));
+    }
+
+    /**
+     * Writes the person with their location to the buffer.
+     *
+     * @param buffer the buffer to write to
+     * @param person the person to write
+     */
+    public static void writePerson(ByteBuffer buffer, Person person) {
+        LocalDateTime birthday = person.getBirthday();
+        putVarLong(buffer, birthday == null ? 0 : zigzag(birthday.toEpochSecond(ZoneOffset.UTC)) + 1);
+        putVarLong(buffer, zigzag(person.getHeight()));
+        putString(buffer, person.getPassportID());
+        writeLocation(buffer, person.getLocation());
+    }
+
+    /**
+     * Reads a person written by {@link #writePerson(ByteBuffer, Person)}.
+     *
+     * @param buffer the buffer positioned at the start of the person
+     * @return the restored person
+     * @throws IOException              if the data is damaged
+     * @throws BufferUnderflowException if the data is cut short
+     */
+    public static Person readPerson(ByteBuffer buffer) throws IOException {
+        long birthday = getVarLong(buffer);
+        LocalDateTime birthdayDate = birthday == 0 ? null : LocalDateTime.ofEpochSecond(unzigzag(birthday - 1), 0, ZoneOffset.UTC);
+        long height = unzigzag(getVarLong(buffer));
+        String passportID = getString(buffer);
+        return new Person(birthdayDate, height, passportID, readLocation(buffer));
+    }
+
+    /**
+     * Writes the location to the buffer.
+     *
+     * @param buffer   the buffer to write to
+     * @param location the location to write
+     */
+    public static void writeLocation(ByteBuffer buffer, Location location) {
+        buffer.putFloat(location.getX());
+        putVarLong(buffer, zigzag(location.getY()));
+        putVarInt(buffer, zigzag(location.getZ()));
+        putString(buffer, location.getName());
+    }
+
+    /**
+     * Reads a location written by {@link #writeLocation(ByteBuffer, Location)}.
+     *
+     * @param buffer the buffer positioned at the start of the location
+     * @return the restored location
+     * @throws IOException              if the data is damaged
+     * @throws BufferUnderflowException if the data is cut short
+     */
+    public static Location readLocation(ByteBuffer buffer) throws IOException {
+        float x = buffer.getFloat();
+        long y = unzigzag(getVarLong(buffer));
+        int z = unzigzag(getVarInt(buffer));
+        return new Location(x, y, z, getString(buffer));
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeWorker(ByteBuffer, Worker)} writes for the worker.
+     *
+     * @param worker the worker
+     * @return the size of the encoded worker
+     */
+    public static int sizeOf(Worker worker) {
+        Person person = worker.getPerson();
+        Location location = person.getLocation();
+        LocalDateTime birthday = person.getBirthday();
+        return varIntSize(worker.getID()) + stringSize(worker.getName())
+                + varIntSize(zigzag(worker.getCoordinates().getX())) + varIntSize(zigzag(worker.getCoordinates().getY()))
+                + varLongSize(zigzag(worker.getCreationDate().toEpochSecond())) + 8 + 1 + 1
+                + varLongSize(birthday == null ? 0 : zigzag(birthday.toEpochSecond(ZoneOffset.UTC)) + 1)
+                + varLongSize(zigzag(person.getHeight())) + stringSize(person.getPassportID())
+                + 4 + varLongSize(zigzag(location.getY())) + varIntSize(zigzag(location.getZ())) + stringSize(location.getName());
+    }
+
+    /**
+     * Writes an unsigned varint.
+     *
+     * @param buffer the buffer to write to
+     * @param value  the value, taken as unsigned
+     */
+    public static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @param buffer the buffer to read from
+     * @return the value
+     * @throws IOException if the varint is longer than five bytes
+     */
+    public static int getVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("слишком длинное число");
+    }
+
+    /**
+     * Writes an unsigned varint of up to 64 bits.
+     *
+     * @param buffer the buffer to write to
+     * @param value  the value, taken as unsigned
+     */
+    public static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned varint of up to 64 bits.
+     *
+     * @param buffer the buffer to read from
+     * @return the value
+     * @throws IOException if the varint is longer than ten bytes
+     */
+    public static long getVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("слишком длинное число");
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varIntSize(int value) {
+        return value == 0 ? 1 : (38 - Integer.numberOfLeadingZeros(value)) / 7;
+    }
+
+    private static int varLongSize(long value) {
+        return value == 0 ? 1 : (70 - Long.numberOfLeadingZeros(value)) / 7;
+    }
+
+    /**
+     * Writes the string as its UTF-8 length and bytes, encoding the characters one by one instead of
+     * through a temporary array.
+     */
+    private static void putString(ByteBuffer buffer, String string) {
+        putVarInt(buffer, utf8Length(string));
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1))) {
+                int code = Character.toCodePoint(c, string.charAt(++i));
+                buffer.put((byte) (0xF0 | code >> 18)).put((byte) (0x80 | code >> 12 & 0x3F))
+                        .put((byte) (0x80 | code >> 6 & 0x3F)).put((byte) (0x80 | code & 0x3F));
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) throws IOException {
+        int length = getVarInt(buffer);
+        if (length < 0 || length > buffer.remaining()) throw new IOException("строка выходит за пределы данных");
+        String string;
+        if (buffer.hasArray()) {
+            string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return string;
+    }
+
+    private static int stringSize(String string) {
+        int length = utf8Length(string);
+        return varIntSize(length) + length;
+    }
+
+    private static int utf8Length(String string) {
+        int length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
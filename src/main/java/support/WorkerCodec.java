@@ -0,0 +1,212 @@
+/**
+ * The WorkerCodec class writes a Worker with all its nested objects as a compact binary record and reads it back.
+ * Numbers are stored as primitives, enums as their ordinals and strings as length-prefixed UTF-8.
+ * The stream methods are used by the journal, the buffer methods by the binary snapshot.
+ */
+package support;
+
+import data.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+public final class WorkerCodec {
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final Position[] POSITIONS = Position.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private WorkerCodec() {
+    }
+
+    /**
+     * Writes the worker to the output.
+     *
+     * @param out    the output to write to
+     * @param worker the worker to write
+     * @throws IOException if the output cannot be written
+     */
+    public static void write(DataOutput out, Worker worker) throws IOException {
+        out.writeInt(worker.getID());
+        out.writeUTF(worker.getName());
+        out.writeInt(worker.getCoordinates().getX());
+        out.writeInt(worker.getCoordinates().getY());
+        out.writeLong(worker.getCreationDate().toInstant().toEpochMilli());
+        out.writeDouble(worker.getSalary());
+        out.writeByte(worker.getPosition().ordinal());
+        out.writeByte(worker.getStatus().ordinal());
+        Person person = worker.getPerson();
+        out.writeLong(person.getBirthday() == null ? NO_DATE : person.getBirthday().toLocalDate().toEpochDay());
+        out.writeLong(person.getHeight());
+        out.writeUTF(person.getPassportID());
+        Location location = person.getLocation();
+        out.writeFloat(location.getX());
+        out.writeLong(location.getY());
+        out.writeInt(location.getZ());
+        out.writeUTF(location.getName());
+    }
+
+    /**
+     * Reads a worker written by {@link #write(DataOutput, Worker)}.
+     *
+     * @param in the input to read from
+     * @return the restored worker
+     * @throws IOException if the input cannot be read or the record is damaged
+     */
+    public static Worker read(DataInput in) throws IOException {
+        int id = in.readInt();
+        String name = in.readUTF();
+        Coordinates coordinates = new Coordinates(in.readInt(), in.readInt());
+        ZonedDateTime creationDate = ZonedDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault());
+        double salary = in.readDouble();
+        Position position = POSITIONS[in.readUnsignedByte()];
+        Status status = STATUSES[in.readUnsignedByte()];
+        long birthday = in.readLong();
+        long height = in.readLong();
+        String passportID = in.readUTF();
+        Location location = new Location(in.readFloat(), in.readLong(), in.readInt(), in.readUTF());
+        LocalDateTime birthdayDate = birthday == NO_DATE ? null : DateCodec.ofEpochDay(birthday);
+        Person person = new Person(birthdayDate, height, passportID, location);
+        return new Worker(id, name, coordinates, creationDate, salary, position, status, person);
+    }
+
+    /**
+     * Returns the number of bytes {@link #write(ByteBuffer, Worker, byte[], byte[], byte[])} needs for a worker,
+     * not counting the strings.
+     *
+     * @return the size of the fixed part of a record
+     */
+    public static int fixedSize() {
+        return 4 + 4 + 4 + 4 + 8 + 8 + 1 + 1 + 8 + 8 + 4 + 4 + 8 + 4 + 4;
+    }
+
+    /**
+     * Writes the worker to the buffer. The strings must be encoded by the caller, so that the size of the
+     * record is known before writing: it is {@link #fixedSize()} plus the lengths of the three strings.
+     *
+     * @param buffer     the buffer to write to
+     * @param worker     the worker to write
+     * @param name       the UTF-8 bytes of the name of the worker
+     * @param passportID the UTF-8 bytes of the passport ID
+     * @param location   the UTF-8 bytes of the name of the location
+     */
+    public static void write(ByteBuffer buffer, Worker worker, byte[] name, byte[] passportID, byte[] location) {
+        buffer.putInt(worker.getID());
+        buffer.putInt(name.length).put(name);
+        buffer.putInt(worker.getCoordinates().getX());
+        buffer.putInt(worker.getCoordinates().getY());
+        buffer.putLong(worker.getCreationDate().toInstant().toEpochMilli());
+        buffer.putDouble(worker.getSalary());
+        buffer.put((byte) worker.getPosition().ordinal());
+        buffer.put((byte) worker.getStatus().ordinal());
+        Person person = worker.getPerson();
+        buffer.putLong(person.getBirthday() == null ? NO_DATE : person.getBirthday().toLocalDate().toEpochDay());
+        buffer.putLong(person.getHeight());
+        buffer.putInt(passportID.length).put(passportID);
+        Location personLocation = person.getLocation();
+        buffer.putFloat(personLocation.getX());
+        buffer.putLong(personLocation.getY());
+        buffer.putInt(personLocation.getZ());
+        buffer.putInt(location.length).put(location);
+    }
+
+    /**
+     * Reads a worker written by {@link #write(ByteBuffer, Worker, byte[], byte[], byte[])}.
+     *
+     * @param buffer the buffer positioned at the start of the record
+     * @return the restored worker
+     * @throws IOException if the record is damaged
+     */
+    public static Worker read(ByteBuffer buffer) throws IOException {
+        try {
+            int id = buffer.getInt();
+            String name = readString(buffer);
+            Coordinates coordinates = new Coordinates(buffer.getInt(), buffer.getInt());
+            ZonedDateTime creationDate = ZonedDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneId.systemDefault());
+            double salary = buffer.getDouble();
+            Position position = POSITIONS[buffer.get() & 0xFF];
+            Status status = STATUSES[buffer.get() & 0xFF];
+            long birthday = buffer.getLong();
+            long height = buffer.getLong();
+            String passportID = readString(buffer);
+            Location location = new Location(buffer.getFloat(), buffer.getLong(), buffer.getInt(), readString(buffer));
+            LocalDateTime birthdayDate = birthday == NO_DATE ? null : DateCodec.ofEpochDay(birthday);
+            Person person = new Person(birthdayDate, height, passportID, location);
+            return new Worker(id, name, coordinates, creationDate, salary, position, status, person);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("запись повреждена", e);
+        }
+    }
+
+    /**
+     * Reads only the passport ID of a record written by {@link #write(ByteBuffer, Worker, byte[], byte[], byte[])},
+     * skipping the fields before it without decoding them.
+     *
+     * @param buffer the buffer positioned at the start of the record
+     * @return the passport ID
+     * @throws IOException if the record is damaged
+     */
+    public static String readPassportID(ByteBuffer buffer) throws IOException {
+        try {
+            buffer.getInt();
+            int name = buffer.getInt();
+            buffer.position(buffer.position() + name + 4 + 4 + 8 + 8 + 1 + 1 + 8 + 8);
+            return readString(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("запись повреждена", e);
+        }
+    }
+
+    /**
+     * Reads only the salary of a record written by {@link #write(ByteBuffer, Worker, byte[], byte[], byte[])},
+     * skipping the fields before it without decoding them.
+     *
+     * @param buffer the buffer positioned at the start of the record
+     * @return the salary
+     * @throws IOException if the record is damaged
+     */
+    public static double readSalary(ByteBuffer buffer) throws IOException {
+        try {
+            buffer.getInt();
+            int name = buffer.getInt();
+            buffer.position(buffer.position() + name + 4 + 4 + 8);
+            return buffer.getDouble();
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("запись повреждена", e);
+        }
+    }
+
+    /**
+     * Reads only the status of a record written by {@link #write(ByteBuffer, Worker, byte[], byte[], byte[])},
+     * skipping the fields before it without decoding them.
+     *
+     * @param buffer the buffer positioned at the start of the record
+     * @return the status
+     * @throws IOException if the record is damaged
+     */
+    public static Status readStatus(ByteBuffer buffer) throws IOException {
+        try {
+            buffer.getInt();
+            int name = buffer.getInt();
+            buffer.position(buffer.position() + name + 4 + 4 + 8 + 8 + 1);
+            return STATUSES[buffer.get() & 0xFF];
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("запись повреждена", e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length > buffer.remaining()) throw new BufferUnderflowException();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * The WorkerStore interface is the storage engine behind {@link CollectionControl}. A store keeps the workers by
+ * their ID in collection order and answers the status and salary queries of the commands, so every engine can
+ * answer them in the way that suits its layout: {@link MapWorkerStore} keeps Worker objects with secondary indexes,
+ * {@link ColumnarWorkerStore} keeps primitive columns and scans them.
+ */
+package support;
+
+import data.Status;
+import data.Worker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+public interface WorkerStore {
+    /**
+     * Returns the number of workers in the store.
+     *
+     * @return the number of workers
+     */
+    int size();
+
+    /**
+     * Checks whether there is a worker with the given ID.
+     *
+     * @param id the ID of the worker
+     * @return true if the ID is taken
+     */
+    boolean contains(int id);
+
+    /**
+     * Returns the worker with the given ID.
+     *
+     * @param id the ID of the worker
+     * @return the worker, or null if there is no worker with such ID
+     */
+    Worker get(int id);
+
+    /**
+     * Puts the worker into the store. A new worker goes to the end of the collection, a worker with a taken ID
+     * replaces the old one in its place.
+     *
+     * @param worker the worker to put
+     */
+    void put(Worker worker);
+
+    /**
+     * Removes the worker with the given ID.
+     *
+     * @param id the ID of the worker
+     * @return the removed worker, or null if there is no worker with such ID
+     */
+    Worker remove(int id);
+
+    /**
+     * Removes the workers with the given IDs at once. Stores that can do it cheaper than one by one override it.
+     *
+     * @param ids the IDs of the workers, all of them in the store
+     */
+    default void removeAll(int[] ids) {
+        for (int id : ids) {
+            remove(id);
+        }
+    }
+
+    /**
+     * Removes all workers.
+     */
+    void clear();
+
+    /**
+     * Returns a read-only view of the workers in collection order.
+     *
+     * @return the workers of the store
+     */
+    Collection<Worker> values();
+
+    /**
+     * Returns the number of workers with the given status.
+     *
+     * @param status the status
+     * @return the number of workers
+     */
+    int countByStatus(Status status);
+
+    /**
+     * Returns the workers whose status is greater than the given one, grouped by status in the order of the statuses.
+     *
+     * @param status the status to compare against
+     * @return a new list of the workers
+     */
+    ArrayList<Worker> greaterThanStatus(Status status);
+
+    /**
+     * Returns the smallest salary of the store.
+     *
+     * @return the smallest salary, or NaN if the store is empty
+     */
+    double minSalary();
+
+    /**
+     * Returns the workers whose salary is between the given bounds, in ascending order of salary and then of ID.
+     *
+     * @param from the lower bound, inclusive
+     * @param to   the upper bound, inclusive
+     * @return a new list of the workers
+     */
+    ArrayList<Worker> salaryRange(double from, double to);
+
+    /**
+     * Returns the worker whose salary is the given percentile of all salaries, by the nearest-rank method.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the worker, or null if the store is empty
+     */
+    Worker salaryPercentile(double percentile);
+}
@@ -0,0 +1,259 @@
+/**
+ * The CollectionControlStressTest class checks that a collection shared by several threads behaves like a
+ * collection used by one thread at a time. Writer threads add, remove and update random workers while reader
+ * threads run the read-only commands, and every call is logged with the time it started and ended. Afterwards
+ * the history of every ID is checked against the rules any serial order of the calls would obey:
+ * <ul>
+ *     <li>every added worker gets an ID nobody else has;</li>
+ *     <li>a worker is removed at most once, and a remove fails only after some other remove has succeeded;</li>
+ *     <li>an update fails only if the worker may already be removed, and never succeeds after a remove that
+ *     had ended before the update started;</li>
+ *     <li>the collection ends up holding exactly the workers that were not removed, each with one of the
+ *     salaries it was last given, and its indexes agree with it.</li>
+ * </ul>
+ * Readers also check that no copy of the collection they get has an ID twice, and an exception thrown in any
+ * thread counts as a broken rule. The benchmarks module keeps a larger run of the same check as
+ * {@code benchmarks.CollectionStress}.
+ */
+package support;
+
+import data.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollectionControlStressTest {
+    private static final int INITIAL = 2_000;
+    private static final int WRITERS = 3;
+    private static final int READERS = 2;
+    private static final int OPERATIONS = 5_000;
+    private static final byte ADD = 0;
+    private static final byte REMOVE = 1;
+    private static final byte UPDATE = 2;
+
+    private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+    private final Set<Integer> initial = ConcurrentHashMap.newKeySet();
+    private CollectionControl collectionControl;
+
+    /**
+     * A call made by a writer thread.
+     *
+     * @param operation ADD, REMOVE or UPDATE
+     * @param id        the ID the call was made on, or the ID the added worker got
+     * @param done      whether the call succeeded
+     * @param salary    the salary the worker was given by an add or an update
+     * @param start     the time the call started
+     * @param end       the time the call returned
+     */
+    private record Call(byte operation, int id, boolean done, double salary, long start, long end) {
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar"})
+    void concurrentCallsLookSerial(String store) throws InterruptedException {
+        Worker.resetIds();
+        Random random = new Random(42);
+        collectionControl = new CollectionControl(
+                new FileControl("columnar".equals(store) ? new String[]{"--columnar"} : new String[0]),
+                new CommunicationControl(new Scanner("")));
+        for (int i = 1; i <= INITIAL; i++) {
+            Worker worker = worker(random, i);
+            initial.add(worker.getID());
+            collectionControl.addToCollection(worker);
+        }
+        run();
+        assertTrue(violations.isEmpty(), () -> violations.size() + " violations, first: "
+                + violations.subList(0, Math.min(10, violations.size())));
+    }
+
+    private void run() throws InterruptedException {
+        List<List<Call>> histories = new ArrayList<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writerThreads = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            List<Call> history = new ArrayList<>(OPERATIONS);
+            histories.add(history);
+            int seed = i;
+            writerThreads.add(new Thread(() -> write(seed, history, start)));
+        }
+        List<Thread> readerThreads = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            readerThreads.add(new Thread(() -> read(writing, start)));
+        }
+        for (Thread thread : writerThreads) thread.setUncaughtExceptionHandler((t, e) -> violations.add(t.getName() + ": " + e));
+        for (Thread thread : readerThreads) thread.setUncaughtExceptionHandler((t, e) -> violations.add(t.getName() + ": " + e));
+        writerThreads.forEach(Thread::start);
+        readerThreads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : writerThreads) thread.join();
+        writing.set(false);
+        for (Thread thread : readerThreads) thread.join();
+        check(histories);
+    }
+
+    private void write(int seed, List<Call> history, CountDownLatch start) {
+        Random random = new Random(seed);
+        await(start);
+        for (int i = 0; i < OPERATIONS; i++) {
+            int kind = random.nextInt(3);
+            int id = 1 + random.nextInt(Math.max(1, Worker.lastId()));
+            long begin = System.nanoTime();
+            if (kind == ADD) {
+                Worker template = worker(random, 0);
+                Worker worker = new Worker(template.getName(), template.getCoordinates(), template.getSalary(),
+                        template.getPosition(), template.getStatus(), template.getPerson());
+                collectionControl.addToCollection(worker);
+                history.add(new Call(ADD, worker.getID(), true, worker.getSalary(), begin, System.nanoTime()));
+            } else if (kind == REMOVE) {
+                boolean done = collectionControl.removeElementByID(id);
+                history.add(new Call(REMOVE, id, done, 0, begin, System.nanoTime()));
+            } else {
+                Worker worker = worker(random, id);
+                boolean done = collectionControl.update(worker);
+                history.add(new Call(UPDATE, id, done, worker.getSalary(), begin, System.nanoTime()));
+            }
+        }
+    }
+
+    private void read(AtomicBoolean writing, CountDownLatch start) {
+        await(start);
+        while (writing.get()) {
+            switch (ThreadLocalRandom.current().nextInt(4)) {
+                case 0 -> {
+                    HashSet<Integer> ids = new HashSet<>();
+                    for (Worker worker : collectionControl.getWorkers()) {
+                        if (!ids.add(worker.getID())) violations.add("reader saw ID " + worker.getID() + " twice");
+                    }
+                }
+                case 1 -> collectionControl.filterBySalary(0, 5000);
+                case 2 -> collectionControl.filterGreaterThanStatus("regular");
+                default -> collectionControl.salaryPercentile(50);
+            }
+        }
+    }
+
+    private void check(List<List<Call>> histories) {
+        Map<Integer, List<Call>> byId = new HashMap<>();
+        for (List<Call> history : histories) {
+            for (Call call : history) {
+                byId.computeIfAbsent(call.id(), id -> new ArrayList<>()).add(call);
+            }
+        }
+        Map<Integer, Worker> result = new HashMap<>();
+        for (Worker worker : collectionControl.getWorkers()) {
+            if (result.put(worker.getID(), worker) != null) violations.add("ID " + worker.getID() + " is stored twice");
+        }
+        for (int id : initial) byId.putIfAbsent(id, new ArrayList<>());
+        for (Map.Entry<Integer, List<Call>> entry : byId.entrySet()) {
+            checkId(entry.getKey(), entry.getValue(), result.get(entry.getKey()));
+        }
+        for (int id : result.keySet()) {
+            if (!byId.containsKey(id)) violations.add("ID " + id + " is stored but was never added");
+        }
+        int size = result.size();
+        if (collectionControl.filterBySalary(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY).size() != size) {
+            violations.add("the salary index does not match the collection");
+        }
+        long first = result.values().stream().filter(worker -> worker.getStatus() == Status.values()[0]).count();
+        if (first + collectionControl.filterGreaterThanStatus(Status.values()[0].name()).size() != size) {
+            violations.add("the status index does not match the collection");
+        }
+    }
+
+    private void checkId(int id, List<Call> calls, Worker stored) {
+        List<Call> adds = new ArrayList<>();
+        List<Call> removes = new ArrayList<>();
+        Call added = null;
+        long removedEnd = Long.MAX_VALUE;
+        long removedStart = Long.MAX_VALUE;
+        for (Call call : calls) {
+            if (call.operation() == ADD) adds.add(call);
+            if (call.operation() == ADD) added = call;
+            if (call.operation() == REMOVE && call.done()) {
+                removes.add(call);
+                removedStart = call.start();
+                removedEnd = call.end();
+            }
+        }
+        boolean present = initial.contains(id) || added != null;
+        if (adds.size() > 1 || (added != null && initial.contains(id))) violations.add("ID " + id + " was given out twice");
+        if (removes.size() > 1) violations.add("ID " + id + " was removed " + removes.size() + " times");
+        if (!removes.isEmpty() && !present) violations.add("ID " + id + " was removed before it existed");
+        long existsFrom = added == null ? Long.MIN_VALUE : added.end();
+        for (Call call : calls) {
+            if (call.operation() == REMOVE && !call.done() && present && call.start() > existsFrom && call.end() < removedStart) {
+                violations.add("remove of " + id + " failed while the worker was in the collection");
+            }
+            if (call.operation() == UPDATE && call.done() && call.start() > removedEnd) {
+                violations.add("update of " + id + " succeeded after the worker was removed");
+            }
+            if (call.operation() == UPDATE && !call.done() && present && call.start() > existsFrom && call.end() < removedStart) {
+                violations.add("update of " + id + " failed while the worker was in the collection");
+            }
+        }
+        if (!removes.isEmpty() || !present) {
+            if (stored != null) violations.add("ID " + id + " is still stored after it was removed");
+            return;
+        }
+        if (stored == null) {
+            violations.add("ID " + id + " was lost");
+            return;
+        }
+        checkSalary(id, calls, added, stored);
+    }
+
+    /**
+     * Checks that the stored salary was set by a call that no other successful call of the ID surely followed.
+     */
+    private void checkSalary(int id, List<Call> calls, Call added, Worker stored) {
+        List<Call> writes = new ArrayList<>();
+        if (added != null) writes.add(added);
+        for (Call call : calls) {
+            if (call.operation() == UPDATE && call.done()) writes.add(call);
+        }
+        if (writes.isEmpty()) return;
+        long lastStart = Long.MIN_VALUE;
+        for (Call call : writes) lastStart = Math.max(lastStart, call.start());
+        for (Call call : writes) {
+            if (call.end() >= lastStart && call.salary() == stored.getSalary()) return;
+        }
+        violations.add("ID " + id + " has salary " + stored.getSalary() + " that is not the result of its last update");
+    }
+
+    private static Worker worker(Random random, int id) {
+        Coordinates coordinates = new Coordinates(random.nextInt(1390) - 921, random.nextInt(2000) - 921);
+        double salary = 1 + random.nextInt(1_000_000) / 100.0;
+        LocalDate birthday = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(365 * 55));
+        Location location = new Location(random.nextFloat() * 1000, random.nextInt(100_000), random.nextInt(1000), name(random));
+        Person person = new Person(birthday.atStartOfDay(), 1 + random.nextInt(350),
+                String.valueOf(100_000 + random.nextInt(900_000)), location);
+        return new Worker(id, name(random), coordinates, salary, Position.values()[random.nextInt(Position.values().length)],
+                Status.values()[random.nextInt(Status.values().length)], person);
+    }
+
+    private static String name(Random random) {
+        char[] name = new char[8];
+        name[0] = (char) ('A' + random.nextInt(26));
+        for (int i = 1; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(name);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}